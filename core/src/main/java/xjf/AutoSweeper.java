@@ -0,0 +1,1153 @@
+package xjf;
+
+import xjf.util.Combinatorics;
+import xjf.util.IntList;
+import xjf.util.Pair;
+import xjf.util.ScaledPolynomial;
+
+import java.util.*;
+
+/**
+ * 自动扫雷 AI. 工具类, 无需初始化.
+ */
+public class AutoSweeper {
+    // AI 给出的三种判断
+    public static final int UNKNOWN = 0;
+    public static final int MINE = 1;
+    public static final int NOT_MINE = -1;
+
+    // 连通分量视图的标记
+    public static final int CC_VISITED = -233;
+    public static final int CC_UNKNOWN = 0;
+
+    // 下一步可确定的平均格子算法最大支持的计算量 (待测格子数小于等于该数字则投入该算法运行)
+    // 该策略只是一种估算, 估算的格子越多偏差也可能越大. 所以该数字不是越大越好, 12 ~ 18 之间或许比较合理.
+    private static final int MAX_NEXT_SITUATION_NUM = 15;
+
+    // 时间复杂度爆炸的胜率算法最大支持的计算量 (待测格子数小于等于该数字则投入该算法运行)
+    // 该策略精确计算点击每个格子的胜率, 所以该数字越大胜率越高. 但该数字指数级影响 AI 的总耗时.
+    private static final int MAX_WIN_RATE_NUM = 12;
+
+    /**
+     * 仅通过检测周围 8 格, 确定已知数字的格子周围剩下的未知格子是否全部为雷
+     * @param game 一局游戏
+     * @param x 目标格子 x 坐标
+     * @param y 目标格子 y 坐标
+     * @return 周围的 Unchecked 格子全为 (或全不为) 雷、或未知
+     */
+    public static int checkOneUncoveredCell(MineSweeper game, int x, int y) {
+        return checkOneUncoveredCell(game, game.getIndex(x, y));
+    }
+
+    /**
+     * 下标版本的 checkOneUncoveredCell
+     * @param game 一局游戏
+     * @param index 目标格子的下标
+     * @return 周围的 Unchecked 格子全为 (或全不为) 雷、或未知
+     */
+    public static int checkOneUncoveredCell(MineSweeper game, int index) {
+        final int num = game.getPlayerBoard(index);
+        if (num > 8) return UNKNOWN;
+        int uncheckedOrQuestion = 0, flag = 0;
+        for (int d : game.getNeighborOffsets()) {
+            switch (game.getPlayerBoard(index + d)) {
+                case MineSweeper.UNCHECKED:
+                case MineSweeper.QUESTION: ++uncheckedOrQuestion; break;
+                case MineSweeper.FLAG: ++flag; break;
+            }
+        }
+        if (uncheckedOrQuestion == 0) return UNKNOWN;
+        if (num == flag) return NOT_MINE;
+        if (num == flag + uncheckedOrQuestion) return MINE;
+        return UNKNOWN;
+    }
+
+    /**
+     * 使用减法公式, 检测紧挨着的两个已知数字格子两边的未知格子是否可判断
+     * @param game 一局游戏
+     * @param index1 第一个目标格子的下标
+     * @param index2 第二个目标格子的下标 (可以是棋盘外的哨兵格子, 此时直接返回 false)
+     * @param safe 用于返回「可揭开的格子列表」(会被清空)
+     * @param mines 用于返回「可标雷的格子列表」(会被清空)
+     * @return 是否可判断
+     */
+    public static boolean checkTwoUncoveredCell(MineSweeper game, int index1, int index2, IntList safe, IntList mines) {
+        int num1 = game.getPlayerBoard(index1), num2 = game.getPlayerBoard(index2);
+        if (num1 > 8 || num2 > 8) return false;
+        // diff 为两格之间的偏移, side 为与之垂直的偏移 (左右相邻时 side 为上下方向, 反之亦然)
+        final int[] offsets = game.getNeighborOffsets();
+        final int stride = offsets[6], diff = index2 - index1;
+        final int side;
+        if (diff == 1 || diff == -1) side = diff * stride;
+        else if (diff == stride || diff == -stride) side = diff / stride;
+        else return false;
+        IntList around1 = safe, around2 = mines;
+        around1.clear();
+        around2.clear();
+        for (int i = -1; i < 2; ++i) {
+            final int p1 = index1 - diff + side * i, pp1 = game.getPlayerBoard(p1);
+            if (pp1 == MineSweeper.FLAG) --num1;
+            else if (pp1 == MineSweeper.UNCHECKED || pp1 == MineSweeper.QUESTION) around1.add(p1);
+
+            final int p2 = index2 + diff + side * i, pp2 = game.getPlayerBoard(p2);
+            if (pp2 == MineSweeper.FLAG) --num2;
+            else if (pp2 == MineSweeper.UNCHECKED || pp2 == MineSweeper.QUESTION) around2.add(p2);
+        }
+        // around1 在 safe 里, around2 在 mines 里. 若结论相反就把两个列表的内容对调
+        if (num2 - num1 - around2.size() == 0) return true;
+        if (num1 - num2 - around1.size() == 0) {
+            int n1 = around1.size(), n2 = around2.size();
+            int[] tmp = around1.toArray();
+            around1.clear();
+            for (int i = 0; i < n2; ++i) around1.add(around2.get(i));
+            around2.clear();
+            for (int i = 0; i < n1; ++i) around2.add(tmp[i]);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 初阶扫雷 AI, 根据游戏定义与减法公式, 找出所有必为雷或必不为雷的格子
+     * 每扫描一遍棋盘, 把这一遍找到的格子攒成一批, 经 applyBatch 一次执行完, 再扫下一遍, 直到找不到为止.
+     * @param game 一局游戏
+     */
+    public static void sweepAllBasedOnDefinition(MineSweeper game) {
+        final int[] offsets = game.getNeighborOffsets();
+        // 向右、向下的相邻格子 (界外的是哨兵格子, checkTwoUncoveredCell 会直接跳过)
+        final int[] nextTo = {offsets[4], offsets[6]};
+        IntList safe = new IntList(3), mines = new IntList(3);
+        IntList toDig = new IntList(64), toFlag = new IntList(64);
+        while (game.getGameState() == MineSweeper.PROCESS) {
+            toDig.clear();
+            toFlag.clear();
+            for (int x = 0; x < game.getRow(); ++x) for (int y = 0; y < game.getCol(); ++y) {
+                final int index = game.getIndex(x, y);
+                // 根据单个格子进行判断
+                int type = checkOneUncoveredCell(game, index);
+                if (type != UNKNOWN) {
+                    for (int d : offsets) {
+                        final int p = index + d;
+                        if (game.getPlayerBoard(p) != MineSweeper.UNCHECKED
+                                && game.getPlayerBoard(p) != MineSweeper.QUESTION) continue;
+                        if (type == MINE) toFlag.add(p);
+                        else if (type == NOT_MINE) toDig.add(p);
+                    }
+                }
+
+                // 根据相邻两个格子进行判断 (减法公式)
+                for (int i = 0; i < 2; ++i) {
+                    if (checkTwoUncoveredCell(game, index, index + nextTo[i], safe, mines)) {
+                        for (int k = 0; k < safe.size(); ++k) toDig.add(safe.get(k));
+                        for (int k = 0; k < mines.size(); ++k) toFlag.add(mines.get(k));
+                    }
+                }
+            }
+            if (toDig.isEmpty() && toFlag.isEmpty()) break;
+            game.applyBatch(toDig.toArray(), toFlag.toArray());
+        }
+    }
+
+    /**
+     * 进阶扫雷 AI, 基于概率, 将所有概率为 100% 或 0% 的格子扫掉
+     * @param game 一局游戏
+     * @return 最后一次计算得概率后没有利用, 将其返回以重复利用
+     */
+    public static ProbResult sweepAllBasedOnProbability(MineSweeper game) {
+        boolean loop = true;
+        ProbResult probResult = null;
+        IntList toDig = new IntList(64);
+        while (loop && game.getGameState() == MineSweeper.PROCESS) {
+            loop = false;
+            sweepAllBasedOnDefinition(game);
+            if (game.getGameState() != MineSweeper.PROCESS) break;
+            probResult = calculateAllProbabilities(game);
+            double[] prob = probResult.probGraph;
+            for (int i = 0; i < game.getRow(); ++i) for (int j = 0; j < game.getCol(); ++j) {
+                final int index = game.getIndex(i, j);
+                // 只扫爆雷概率为 0 的, 不标爆雷概率为 1 的.
+                // 以前概率按 6 位小数舍入, 有极低概率出现计算得概率为 1 但却不是雷; 现在已不再舍入, 但标旗对 AI 没有帮助, 仍然不标.
+                // if (prob[index] == 1.0 && game.getPlayerBoard(index) != MineSweeper.FLAG) game.setFlag(index);
+                if (prob[index] == 0.0 && game.getPlayerBoard(index) == MineSweeper.UNCHECKED) toDig.add(index);
+            }
+            if (toDig.isEmpty()) break;
+            loop = true;
+            game.applyBatch(toDig.toArray(), null);
+            toDig.clear();
+        }
+        return probResult;
+    }
+
+    /**
+     * 高阶扫雷 AI, 复杂度爆炸的胜率算法
+     * 「算力允许的情况下」计算全局 (或孤立区域) 的胜率 (或局部胜率) 并把该区域全部扫完.
+     * 因为计算胜率会把所有可能的子局面的胜率都算出来, 所以可以直接对照计算得的所有子局面, 把这一整个区域扫完.
+     * @param game 一局游戏
+     * @param probInfo 之前计算得的连通分量、爆雷概率等信息
+     * @return 算法有没有执行
+     */
+    public static boolean sweepAllBasedOnWinRate(MineSweeper game, ProbResult probInfo) {
+        return sweepIsolatedAreasBasedOnWinRate(game, probInfo) || sweepAllAreasBasedOnWinRate(game);
+    }
+
+    /**
+     * 完整地玩一局扫雷, 玩到胜利或失败为止
+     * 基于 sweepAllBasedOnDefinition -> sweepAllBasedOnProbability -> sweepAllBasedOnWinRate 顺序,
+     * 根据定义与减法公式扫除一部分, 基于概率扫除一部分, 直到没有百分百确定的格子. 然后根据胜率算法 (算力允许范围内) 和非雷概率,
+     * 扫除不百分百确定的雷.
+     * @param game 一局游戏
+     */
+    public static void sweepToEnd(MineSweeper game) {
+        if (game.getStep() == 0) {
+            // Win7 的规则下第一步点击距离角落两格的点最好
+            if (game.getGameRule() == MineSweeper.GAME_RULE_WIN_7) game.quickDig(2, 2);
+            else game.quickDig(0, 0);
+            game.lazyUpdate();
+        }
+
+        IntList candidates = new IntList(MAX_NEXT_SITUATION_NUM + 1);
+        // 这段代码很长, 但逻辑还算清晰, 就不拆成多个函数了
+        while (game.getGameState() == MineSweeper.PROCESS) {
+            // 先把百分百有把握的格子扫了
+            ProbResult probResult = sweepAllBasedOnProbability(game);
+            if (game.getGameState() != MineSweeper.PROCESS) break;
+            if (probResult == null) probResult = calculateAllProbabilities(game);
+            double[] prob = probResult.probGraph;
+
+            // 至此, 局面上已经没有百分百「是雷」/「不是雷」的格子了, 于是需要一些策略来扫一个格子.
+            // 下面有两大种策略:
+            //     1. 基于「所有后续局面」的全局 / 局部胜率 (复杂度爆炸, 仅在残局使用).
+            //     2. 基于「仅针对当前局面」的爆雷概率 (速度相对更快);
+
+            // 如果在算力允许的范围内, 扫除一整个残局或多个孤立区域
+            sweepAllBasedOnWinRate(game, probResult);
+            if (game.getGameState() != MineSweeper.PROCESS) break;
+
+            // 根据计算得的每个格子的爆雷概率, 找出爆雷概率最小的格子 (如果最小概率的格子有多个, 还有一些小策略, 详情见 for 内注释)
+            // 这里变量命名略有混乱, 解释一下: prob 返回的是爆雷概率, max 标记的是最大非雷概率 (即 1 - 爆雷概率) 的格子下标.
+            int max = -1, corner = -1, intensity = -1;
+            for (int i = 0; i < game.getRow(); ++i) for (int j = 0; j < game.getCol(); ++j) {
+                final int index = game.getIndex(i, j);
+                int cellState = game.getPlayerBoard(index);
+                if (cellState != MineSweeper.UNCHECKED && cellState != MineSweeper.QUESTION) continue;
+                if (max != -1 && prob[index] > prob[max]) continue;
+                boolean newMax = false;
+                int cor = 0, in = getNumberCellCntAround(game, i, j, 3);
+                if (i == 0 || i == game.getRow() - 1) ++cor;
+                if (j == 0 || j == game.getCol() - 1) ++cor;
+                if (max != -1 && prob[index] == prob[max]) {
+                    // 同概率的话在角落的格子优先探测, 可以将概率从 29% 提升到 33%.
+                    // 或者当两者都在 (或都不在) 角落时, 选择周围 24 格数字格子更多的.
+                    if ((cor == 2 && cor > corner) || (in > intensity)) newMax = true;
+                }
+                else if (max == -1 || prob[index] < prob[max]) newMax = true;
+                if (!newMax) continue;
+                max = index;
+                corner = cor;
+                intensity = in;
+            }
+
+            // 若有多个爆雷概率最小的格子且 **复杂度允许**, 则对这些格子计算「选择该格子后, 可百分百确定的其他格子的期望数量」
+            candidates.clear();
+            candidates.add(max);
+            for (int i = 0; i < game.getRow(); ++i) for (int j = 0; j < game.getCol(); ++j) {
+                final int index = game.getIndex(i, j);
+                if (index == max) continue;
+                if (prob[index] != prob[max]) continue;
+                candidates.add(index);
+                if (candidates.size() > MAX_NEXT_SITUATION_NUM) break;
+            }
+            if (candidates.size() <= MAX_NEXT_SITUATION_NUM) {
+                byte[] board = game.getPackedPlayerBoard();
+                int[] ccGraph = findAllConnectedComponents(game).getValue();
+                double maxAvgSafe = 0;
+                int _max = max;
+                boolean adoptThisStrategy = true;
+                for (int k = 0; k < candidates.size(); ++k) {
+                    final int p = candidates.get(k);
+                    double num = calculateAvgNumOfSafeCells(game, p, board, ccGraph);
+                    if (num < 0) {
+                        adoptThisStrategy = false;
+                        break;
+                    }
+                    if (num > maxAvgSafe) {
+                        maxAvgSafe = num;
+                        _max = p;
+                    }
+                }
+                if (adoptThisStrategy) max = _max;
+            }
+
+            // 只找 prob 低的 uncover, 不找 prob 高的 setFlag, 因为 setFlag 不影响游戏状态, 标错了也不知道.
+            game.quickDig(max);
+            game.lazyUpdate();
+        }
+    }
+
+    /**
+     * 寻找所有连通分量
+     * 一个连通分量表示, 有多种可能性且相互影响的一个区域
+     * @param game 一局游戏
+     * @return Pair 的 key 储存所有分量的所有格子下标, value 为整个图 (以下标为索引)
+     */
+    public static Pair<List<IntList>, int[]> findAllConnectedComponents(MineSweeper game) {
+        List<IntList> ccList = new ArrayList<>();
+        int[] ccGraph = new int[game.getIndexBound()];
+        final int[] offsets = game.getNeighborOffsets();
+        IntList que = new IntList();
+        int id = 1;
+        // 遍历每个点, 找到第一个可能属于一个连通分量的点, 并从该点扩散开来寻找其他属于该分量的点
+        for (int i = 0; i < game.getRow(); ++i) for (int j = 0; j < game.getCol(); ++j) {
+            final int start = game.getIndex(i, j);
+            if (ccGraph[start] != CC_UNKNOWN || game.getPlayerBoard(start) > 8) continue;
+            // 找到了一个可能的点. 注意该点为已扫出数字的格子 (因为一个数字格子周围的未知格子必属于同一分量)
+            // 该队列存储的点是已扫出数字的格子, 这些个数字格子周围的未知格子也必属于同一分量
+            que.clear();
+            que.add(start);
+            IntList points = new IntList();
+            boolean findANewComponent = false;
+            // BFS 遍历周围的点, 搜出整个连通分量
+            for (int head = 0; head < que.size(); ++head) {
+                final int cur = que.get(head);
+                if (ccGraph[cur] == CC_VISITED) continue;
+                ccGraph[cur] = CC_VISITED;
+                // 遍历该数字格子周围的所有未知格子, 它们属于同一个分量
+                for (int d : offsets) {
+                    final int p = cur + d;
+                    if ((game.getPlayerBoard(p) != MineSweeper.UNCHECKED && game.getPlayerBoard(p) != MineSweeper.QUESTION)
+                            || ccGraph[p] == id) continue;
+                    findANewComponent = true;
+                    points.add(p);
+                    ccGraph[p] = id;
+                    // 找出「数字格子周围的未知格子」的周围的其余数字格子, 加入队列 (有点绕)
+                    for (int d2 : offsets) {
+                        if (game.getPlayerBoard(p + d2) < 9) que.add(p + d2);
+                    }
+                }
+            }
+            if (findANewComponent) {
+                ccList.add(points);
+                ++id;
+            }
+        }
+//        printConnectedComponent(game, ccGraph);
+        return new Pair<>(ccList, ccGraph);
+    }
+
+    /**
+     * 计算每个格子有雷的概率 (默认当前每个旗子设的都是对的, 懒得自检了)
+     * 注意: 返回的是格子为雷的概率, 则非雷概率为 1 - p.
+     * @param game 一局游戏
+     * @return 每个格子的有雷概率
+     */
+    public static ProbResult calculateAllProbabilities(MineSweeper game) {
+        double[] probGraph = new double[game.getIndexBound()];
+        Pair<List<IntList>, int[]> _ccPair = findAllConnectedComponents(game);
+        List<IntList> ccList = _ccPair.getKey();
+        int[] ccGraph = _ccPair.getValue();
+        List<PermTally> ccPermList = new ArrayList<>(ccList.size());
+        final byte[] board = game.readPackedPlayerBoard(); // 计数只读棋盘, 不必复制
+
+        // 计算每个连通分量的每个点的有雷概率
+        for (IntList points : ccList) {
+            PermTally perm = new PermTally(points.size(), game.getMineLeft());
+            // 如果排列数为 0, 说明玩家设的旗有错, 会异常
+            tallyPermutations(game, board, points, perm);
+            ccPermList.add(perm);
+        }
+        double avgPermMineCnt = calculateProbabilitiesOfAllConnectedComponents(game, ccList, ccPermList, probGraph);
+
+        // 所有未知孤立格子 (即周围没有已知数字格子的格子) 统一计算概率为 "平均剩余雷数/未知孤立格子数"
+        int unknownCellCnt = game.getUncheckedCellLeft();
+        for (IntList points : ccList) unknownCellCnt -= points.size();
+        if (unknownCellCnt > 0) {
+            double unknownCellProb = ((double) game.getMineLeft() - avgPermMineCnt) / (double) (unknownCellCnt);
+            if (Math.abs(unknownCellProb) < 1e-5) unknownCellProb = 0.0;
+            else if (Math.abs(unknownCellProb - 1.0) < 1e-5) unknownCellProb = 1.0;
+            for (int i = 0; i < game.getRow(); ++i) for (int j = 0; j < game.getCol(); ++j) {
+                final int index = game.getIndex(i, j);
+                if (ccGraph[index] == CC_UNKNOWN) {
+                    if (game.getPlayerBoard(index) == MineSweeper.UNCHECKED || game.getPlayerBoard(index) == MineSweeper.QUESTION) {
+                        probGraph[index] = unknownCellProb;
+                    }
+                    else if (game.getPlayerBoard(index) == MineSweeper.FLAG) probGraph[index] = 1.0;
+                }
+            }
+        }
+//        printProbability(game, probGraph);
+        return new ProbResult(_ccPair.getKey(), _ccPair.getValue(), ccPermList, probGraph);
+    }
+
+    /**
+     * 统计一个连通分量所有可行的雷布局
+     * @param game 一局游戏
+     * @param board 玩家面板
+     * @param points 一个连通分量所有的点
+     * @param tally 按雷数统计的所有情况 (需为空)
+     * @return 可行排列总数
+     */
+    private static double tallyPermutations(MineSweeper game, byte[] board, IntList points, PermTally tally) {
+        return tallyPermutations(FrontierConstraints.compile(game, board, points), tally, true);
+    }
+
+    /**
+     * 统计编译后的连通分量所有可行的雷布局. 几种方法结果相同, 按估算的耗时自动选择:
+     * 约束传播枚举 (FrontierEnumerator) 适合短小或约束很紧的分量, 转移矩阵 DP (FrontierDp) 适合又长又细的分量,
+     * 分量被一两个格子连成几大块时按分割点分治 (FrontierSplitter, 各块再在前两种方法中选择).
+     * @param fc 编译后的约束
+     * @param tally 按雷数统计的所有情况 (需为空)
+     * @param split 是否尝试分治 (分治出的各块不再分治, 否则每种分割点取值都要重新找一遍分割点)
+     * @return 可行排列总数
+     */
+    static double tallyPermutations(FrontierConstraints fc, PermTally tally, boolean split) {
+        double cost = FrontierEnumerator.estimateCost(fc);
+        FrontierDp dp = null;
+        // 排出 DP 的处理顺序、寻找分割点本身也有开销, 枚举明显更快时就不必尝试
+        if (cost > FrontierDp.minCost(fc)) {
+            dp = new FrontierDp(fc);
+            if (dp.getCost() < cost) cost = dp.getCost();
+            else dp = null;
+        }
+        if (split && dp == null && cost > FrontierSplitter.searchCost(fc)) {
+            FrontierSplitter splitter = FrontierSplitter.find(fc, cost);
+            if (splitter != null) return splitter.count(tally);
+        }
+        return dp != null ? dp.count(tally) : FrontierEnumerator.count(fc, tally);
+    }
+
+    /**
+     * 分量之外的 notInCC 个格子在分量共有 m 个雷时的情况数 C(notInCC, maxMineCnt - m), 下标为 m.
+     * 这些数在大棋盘上会超出 double 的范围, 但概率只用到它们之间的比值, 所以在对数空间里统一减去最大的一个再还原,
+     * 最大项为 1, 其余项按比例缩小 (过小的下溢为 0, 对概率没有影响).
+     * @param notInCC 不在任何连通分量中的未知格子数
+     * @param maxMineCnt 剩余雷数
+     * @return 缩放后的情况数
+     */
+    private static double[] scaledNumOfCasesOutsideCC(int notInCC, int maxMineCnt) {
+        double[] weights = new double[maxMineCnt + 1];
+        double maxLog = Double.NEGATIVE_INFINITY;
+        for (int m = 0; m <= maxMineCnt; ++m) {
+            weights[m] = Combinatorics.logChoose(notInCC, maxMineCnt - m);
+            maxLog = Math.max(maxLog, weights[m]);
+        }
+        for (int m = 0; m <= maxMineCnt; ++m) weights[m] = Math.exp(weights[m] - maxLog);
+        return weights;
+    }
+
+    /**
+     * 计算所有连通分量中各个格子有雷的精确概率 (双精度浮点, 不再按 6 位小数舍入)
+     * @param game 一局游戏
+     * @param ccList 所有连通分量的列表
+     * @param ccPermList 所有连通分量所有可能性下, 有多少个情况格子为雷
+     * @param probGraph 一个空白数组, 用于返回每个格子的概率
+     * @return 所有分量平均雷数
+     */
+    private static double calculateProbabilitiesOfAllConnectedComponents(MineSweeper game,
+                                                                         List<IntList> ccList,
+                                                                         List<PermTally> ccPermList,
+                                                                         double[] probGraph) {
+        int notInCC = game.getUncheckedCellLeft();
+        for (IntList cc : ccList) {
+            notInCC -= cc.size();
+        }
+        final int maxMineCnt = game.getMineLeft();
+        final int n = ccPermList.size();
+        double avgPermMineCnt = 0;
+
+        // prefix[i]: 前 i 个分量综合起来, 不同雷数下共有多少种组合情况
+        ScaledPolynomial[] perms = new ScaledPolynomial[n];
+        ScaledPolynomial[] prefix = new ScaledPolynomial[n + 1];
+        prefix[0] = ScaledPolynomial.ONE; // 0 个分量时有一种情况
+        for (int i = 0; i < n; ++i) {
+            perms[i] = ScaledPolynomial.of(ccPermList.get(i).permCounts);
+            prefix[i + 1] = prefix[i].multiply(perms[i], maxMineCnt);
+        }
+
+        // suffix[a]: 之前的分量共有 a 个雷时, 之后的分量与分量外的格子共有多少种情况. 一开始 "之后" 只有分量外的格子,
+        // 分量外的格子数超出剩余雷数范围的雷数 (a < maxMineCnt - notInCC) 情况数为 0, 所以不用再单独判断最少雷数
+        ScaledPolynomial suffix = new ScaledPolynomial(scaledNumOfCasesOutsideCC(notInCC, maxMineCnt), 0);
+
+        // 计算所有可能组合的数量
+        double allPermCnt = 0;
+        for (int m = 0; m < prefix[n].length(); ++m) {
+            allPermCnt += prefix[n].get(m) * suffix.get(m);
+        }
+        final int allExp = prefix[n].getExponent() + suffix.getExponent();
+
+        // 计算在不同雷数下的所有可能组合, 并与 allPermCnt 得到概率. 该分量之外的部分恰好是 prefix[i] 与 suffix 两段, 不用再重新合并
+        for (int i = n - 1; i >= 0; --i) { // 遍历每个连通分量 (从后往前, 以便逐步扩充 suffix)
+            IntList ccPoints = ccList.get(i); // 该分量的所有格子下标
+            PermTally ccPerms = ccPermList.get(i); // 该连通分量的不同雷数情况下的排列
+            ScaledPolynomial left = prefix[i];
+            final int exp = left.getExponent() + suffix.getExponent() - allExp;
+
+            for (int curMine = ccPerms.minMine; curMine <= ccPerms.maxMine; ++curMine) { // 遍历该连通分量的所有可能雷数
+                if (ccPerms.permCounts[curMine] == 0) continue;
+                double curPermCnt = 0; // (乘上每个格子为雷的情况个数后为) 当前情形下的可能情况
+                for (int otherMine = 0; otherMine < left.length() && otherMine + curMine < suffix.length(); ++otherMine) {
+                    curPermCnt += left.get(otherMine) * suffix.get(otherMine + curMine);
+                }
+                final double ratio = Math.scalb(curPermCnt / allPermCnt, exp);
+                final int row = curMine * ccPerms.size;
+                for (int j = 0; j < ccPoints.size(); ++j) {
+                    double prob = ccPerms.cellCounts[row + j] * ratio;
+                    probGraph[ccPoints.get(j)] += prob;
+                    avgPermMineCnt += prob;
+                }
+            }
+            suffix = suffix.correlate(perms[i]);
+        }
+        return avgPermMineCnt;
+    }
+
+    /**
+     * 如果假定一个未知格子为数字格子, 那么当该格子为 0~8 的数字时, 当前局面有哪些格子可以因此也被确定是安全的 (必不为雷).
+     * 计算 0~8 所有情况下平均能确定多少个雷. 该策略效果没那么明显 (低于 1%), 且涉及连通分量的遍历计算, 十分耗时.
+     * 所以优化了一下, 如果待计算的连通分量长度大于 16, 就返回 -1, 以表罢工. 最终结果是提升了 0.5% ~ 0.9%, 平均每局耗时增加了 2ms.
+     * @param game 一局游戏
+     * @param index 待测格子的下标 (请确保该格子为未知格子或问号格子)
+     * @param board 玩家面板
+     * @param ccGraph 连通分量图
+     * @return 确定待测格子后平均能确定多少其他未知格子
+     */
+    private static double calculateAvgNumOfSafeCells(MineSweeper game, int index, byte[] board, int[] ccGraph) {
+        // 假设当前格子不是雷, 计算该格子所涉及的连通分量
+        final int[] offsets = game.getNeighborOffsets();
+        IntList newCcPoints = new IntList();
+        IntList ccSet = new IntList(8);
+        boolean[] vis = new boolean[game.getIndexBound()];
+        vis[index] = true;
+        for (int d : offsets) { // 周围一圈的未知格子都属于该分量
+            final int p = index + d;
+            if (board[p] == MineSweeper.UNCHECKED || board[p] == MineSweeper.QUESTION) {
+                vis[p] = true;
+                newCcPoints.add(p);
+                if (ccGraph[p] > 0 && !ccSet.contains(ccGraph[p])) ccSet.add(ccGraph[p]);
+            }
+        }
+        for (int i = 0; i < newCcPoints.size(); ++i) { // 周围一圈格子所涉及的连通分量也都属于该新分量
+            final int p = newCcPoints.get(i);
+            for (int d : offsets) {
+                final int pa = p + d;
+                if (!vis[pa] && ccSet.contains(ccGraph[pa])) {
+                    vis[pa] = true;
+                    newCcPoints.add(pa);
+                }
+            }
+        }
+        // 连通分量太长的不算, 不然太耗时
+        if (newCcPoints.size() > 16) return -1;
+
+        // 根据新连通分量, 计算: 当目标格子为 0~8 时, 后续可以确定多少个格子必为非雷
+        // (只统计必非雷的格子, 没统计必为雷的格子, 因为标雷对棋局没什么实质性帮助)
+        double alwaysSafe = 0, allPermCnt = 0;
+        PermTally perm = new PermTally(newCcPoints.size(), game.getMineLeft());
+        double[] allCount = new double[newCcPoints.size()];
+        for (int num = 0; num <= 8; ++num) {
+            board[index] = (byte) num;
+            perm.clear();
+            final double permCnt = tallyPermutations(game, board, newCcPoints, perm);
+            if (permCnt == 0) continue;
+            allPermCnt += permCnt;
+            perm.sumCellCounts(allCount);
+            for (double mineCnt : allCount) {
+                if (mineCnt == 0) alwaysSafe += permCnt;
+            }
+        }
+        board[index] = MineSweeper.UNCHECKED;
+
+        // 计算: 当当前格不为雷时, 则挖开该格子后, 局面上平均有多少格未知格子因此被确定不是雷
+        return alwaysSafe / allPermCnt;
+    }
+
+    /**
+     * 给整个残局计算全局胜率并扫除 (算力不允许则返回 false)
+     * @param game 一局游戏
+     * @return 有没有执行
+     */
+    private static boolean sweepAllAreasBasedOnWinRate(MineSweeper game) {
+        if (game.getUncheckedCellLeft() > MAX_WIN_RATE_NUM) return false;
+        return sweepGivenAreaBasedOnWinRate(game, game.getPackedPlayerBoard(), getAllUncheckedPoints(game), game.getMineLeft());
+    }
+
+    /**
+     * 给所有孤立区域计算局部胜率并扫除 (算力不允许则返回 false)
+     * @param game 一局游戏
+     * @param probInfo 概率信息
+     * @return 有没有执行
+     */
+    private static boolean sweepIsolatedAreasBasedOnWinRate(MineSweeper game, ProbResult probInfo) {
+        boolean worked = false;
+        for (Pair<Pair<IntList, Integer>, byte[]> area : findAllIsolatedAreas(game, probInfo)) {
+            IntList toCheck = area.getKey().getKey();
+            int maxMineCnt = area.getKey().getValue();
+            byte[] board = area.getValue();
+            worked = sweepGivenAreaBasedOnWinRate(game, board, toCheck, maxMineCnt) || worked;
+            if (game.getGameState() != MineSweeper.PROCESS) break;
+        }
+        return worked;
+    }
+
+    /**
+     * 给给定区域计算胜率并扫除 (算力不允许则返回 false)
+     * @param game 一局游戏
+     * @param board 当前的棋局
+     * @param toCheck 指定区域的所有未知格子
+     * @param maxMineCnt 该区域雷数
+     * @return 有没有执行
+     */
+    private static boolean sweepGivenAreaBasedOnWinRate(MineSweeper game, byte[] board, IntList toCheck, int maxMineCnt) {
+        Map<String, Pair<Pair<Double, Double>, double[]>> vis = calculateAllWinRates(game, board, toCheck, maxMineCnt);
+        if (vis == null) return false;
+        while (game.getGameState() == MineSweeper.PROCESS) {
+            String uri = uriOfBoard(game.readPackedPlayerBoard(), toCheck);
+            Pair<Pair<Double, Double>, double[]> winRateInfo = vis.get(uri);
+            double[] rateList = winRateInfo.getValue();
+            double maxRate = winRateInfo.getKey().getValue();
+            int i;
+            for (i = 0; i < toCheck.size(); ++i) {
+                if (rateList[i] != maxRate) continue;
+                game.dig(toCheck.get(i));
+                break;
+            }
+            if (i == toCheck.size()) break;
+        }
+        return true;
+    }
+
+    /**
+     * 找到所有孤立区域
+     * 孤立区域的定义: 区域内都是未知格子且属于同一个连通分量, 且区域内部雷数数量的可能性唯一.
+     * @param game 一局游戏
+     * @param probInfo 棋盘连通分量与概率信息
+     * @return 所有孤立区域. List 的元素为 ((孤立区域的格子, 孤立区域的雷数), 把非孤立区域部分都填满后的棋盘) )
+     */
+    private static List<Pair<Pair<IntList, Integer>, byte[]>> findAllIsolatedAreas(MineSweeper game, ProbResult probInfo) {
+        List<Pair<Pair<IntList, Integer>, byte[]>> res = new ArrayList<>();
+        final int[] offsets = game.getNeighborOffsets();
+        for (int index = 0; index < probInfo.ccList.size(); ++index) {
+            IntList points = probInfo.ccList.get(index);
+            PermTally perms = probInfo.ccPermList.get(index);
+            if (points.size() > MAX_WIN_RATE_NUM) continue;
+
+            // 判断一块区域是不是孤立的 (即区域内可能存在的雷数是确定的)
+            if (perms.minMine != perms.maxMine) continue;
+            boolean isIsolated = true;
+            for (int i = 0; i < points.size() && isIsolated; ++i) {
+                final int p = points.get(i);
+                for (int d : offsets) {
+                    final int pa = p + d;
+                    int cellState = game.getPlayerBoard(pa);
+                    if ((cellState == MineSweeper.UNCHECKED || cellState == MineSweeper.QUESTION)
+                            && probInfo.ccGraph[pa] != probInfo.ccGraph[p]) {
+                        isIsolated = false;
+                        break;
+                    }
+                }
+            }
+            if (!isIsolated) continue;
+
+            // 获取该孤立区域的雷数
+            int mineCnt = perms.minMine; // 雷数只有一种可能
+
+            // 把非待测区域的地方都填满 (一开始写方法的时候没考虑周到, 导致现在调用那些方法得曲线救国. 但是又懒得重构了)
+            byte[] testBoard = new byte[game.getIndexBound()], board = game.readPackedPlayerBoard();
+            for (int i = 0; i < points.size(); ++i) {
+                final int p = points.get(i);
+                if (board[p] == MineSweeper.UNCHECKED || board[p] == MineSweeper.QUESTION) {
+                    testBoard[p] = (byte) MineSweeper.NOT_MINE;
+                }
+            }
+            int flagToAdd = game.getMineLeft() - mineCnt;
+            for (int i = 0; i < testBoard.length; ++i) {
+                if (testBoard[i] == MineSweeper.NOT_MINE) testBoard[i] = MineSweeper.UNCHECKED;
+                else if (board[i] == MineSweeper.UNCHECKED || board[i] == MineSweeper.QUESTION) {
+                    if (flagToAdd > 0) {
+                        --flagToAdd;
+                        testBoard[i] = MineSweeper.FLAG;
+                    } else testBoard[i] = 8;
+                } else testBoard[i] = board[i];
+            }
+            res.add(new Pair<>(new Pair<>(points, mineCnt), testBoard));
+        }
+        return res;
+    }
+
+    /**
+     * 计算 toCheck 列表里所有点的胜率
+     * @param game 一局游戏
+     * @param board 当前棋局
+     * @param toCheck 待测的未知格子列表
+     * @param maxMineCnt 这些格子内的雷数
+     * @return 当前局与所有子局的胜率信息
+     */
+    private static Map<String, Pair<Pair<Double, Double>, double[]>>
+    calculateAllWinRates(MineSweeper game, byte[] board, IntList toCheck, int maxMineCnt) {
+        if (toCheck.size() > MAX_WIN_RATE_NUM) return null;
+        Map<String, Pair<Pair<Double, Double>, double[]>> vis = new HashMap<>(500000);
+        // 整个搜索过程共用一个以 board 为玩家视图的 DebugSweeper, 搜索时对 board 的修改经过它的 setCell, 计数始终正确
+        DebugSweeper scratch = new DebugSweeper(game, board);
+        if (calculateBoardWinRate(scratch, board, toCheck, maxMineCnt, vis) == null) return null;
+        return vis;
+    }
+
+    /**
+     * 计算一个局面的胜率 (即所有格子的最大胜率)
+     * @param game 以 board 为玩家视图的 DebugSweeper
+     * @param board 当前局面
+     * @param toCheck 待测的未知格子列表
+     * @param maxMineCnt 这些格子内的雷数
+     * @param vis 所有已计算的子局面的胜率信息
+     * @return 可能的排列数 与 局面的胜率
+     */
+    private static Pair<Double, Double> calculateBoardWinRate(DebugSweeper game, byte[] board,
+                                                              IntList toCheck, int maxMineCnt,
+                                                              Map<String, Pair<Pair<Double, Double>, double[]>> vis) {
+        // 获得局面 uri, 如果已经计算过则直接返回
+        String uri = uriOfBoard(board, toCheck);
+        Pair<Pair<Double, Double>, double[]> tuple = vis.get(uri);
+        if (tuple != null) return tuple.getKey();
+
+        double[] winRates = new double[toCheck.size()];
+        int uncheckedCnt = 0;
+        for (int i = 0; i < toCheck.size(); ++i) {
+            final int p = toCheck.get(i);
+            if (board[p] == MineSweeper.UNCHECKED || board[p] == MineSweeper.QUESTION) ++uncheckedCnt;
+        }
+        double permCnt = calculatePermCnt(game, board);
+        // DFS 的边界: 剩下的未知格子都是雷或当前局面不合法
+        if (uncheckedCnt == maxMineCnt || permCnt == 0) {
+            vis.put(uri, new Pair<>(new Pair<>(permCnt, permCnt), winRates));
+            return new Pair<>(permCnt, permCnt);
+        }
+
+        // 局面的胜率等于所有格子中胜率最大的那个
+        int maxIndex = -1;
+        for (int index = 0; index < toCheck.size(); ++index) {
+            final int p = toCheck.get(index);
+            if (board[p] != MineSweeper.UNCHECKED && board[p] != MineSweeper.QUESTION) continue;
+            double cellWinRate = calculateCellWinRate(game, board, toCheck, maxMineCnt, index, permCnt, vis);
+            winRates[index] = cellWinRate;
+
+            if (maxIndex == -1 || winRates[maxIndex] < cellWinRate) {
+                maxIndex = index;
+            }
+        }
+        vis.put(uri, new Pair<>(new Pair<>(permCnt, winRates[maxIndex]), winRates));
+        return new Pair<>(permCnt, winRates[maxIndex]);
+    }
+
+    /**
+     * 计算一个格子在当前局面的胜率 (即当它为 0 ~ 8 时的子局面胜率的综合)
+     * @param game 以 board 为玩家视图的 DebugSweeper
+     * @param board 当前局面
+     * @param toCheck 待测格子
+     * @param maxMineCnt 局面最大雷数
+     * @param checkIndex 当前计算的格子在 toCheck 中的下标
+     * @param permCnt 当前局面的所有可能排列数量
+     * @param vis 所有已计算的子局面的胜率信息
+     * @return 格子胜率
+     */
+    private static double calculateCellWinRate(DebugSweeper game, byte[] board, IntList toCheck, int maxMineCnt,
+                                               int checkIndex, double permCnt,
+                                               Map<String, Pair<Pair<Double, Double>, double[]>> vis) {
+        final int p = toCheck.get(checkIndex);
+        double cellWinRate = 0.0;
+        game.setCell(p, MineSweeper.NOT_MINE);
+        if (isUncheckedCellLegal(game, board, p)) {
+            for (int cellState = 0; cellState <= 8; ++cellState) {
+                game.setCell(p, cellState);
+                if (!isUncoveredCellLegal(game, board, p)) continue;
+                Pair<Double, Double> _pair = calculateBoardWinRate(game, board, toCheck, maxMineCnt, vis);
+                assert _pair != null;
+                cellWinRate += _pair.getValue() * _pair.getKey() / permCnt;
+            }
+        }
+        game.setCell(p, MineSweeper.UNCHECKED);
+        return cellWinRate;
+    }
+
+    /**
+     * 计算当前局面所有的可能组合数
+     * @param g2 以 board 为玩家视图的 DebugSweeper (计数由 setCell 维护, 无需每次重新扫描棋盘)
+     * @param board 当前局面
+     * @return 所有的可能组合数
+     */
+    private static double calculatePermCnt(DebugSweeper g2, byte[] board) {
+        Pair<List<IntList>, int[]> _pair = findAllConnectedComponents(g2);
+        ScaledPolynomial perms = ScaledPolynomial.ONE; // 0 个分量时有一种情况
+        for (IntList list : _pair.getKey()) {
+            PermTally perm = new PermTally(list.size(), g2.getMineLeft());
+            tallyPermutations(g2, board, list, perm);
+            perms = perms.multiply(ScaledPolynomial.of(perm.permCounts), g2.getMineLeft());
+        }
+        double permCnt = 0;
+        int unknown = g2.getUncheckedCellLeft();
+        for (IntList list : _pair.getKey()) unknown -= list.size();
+        for (int m = 0; m < perms.length(); ++m) {
+            if (perms.get(m) != 0) permCnt += Combinatorics.choose(unknown, g2.getMineLeft() - m) * perms.get(m);
+        }
+        permCnt = Math.scalb(permCnt, perms.getExponent());
+        return permCnt;
+    }
+
+    /**
+     * 获得所有未知的格子
+     * @param game 一局游戏
+     * @return 所有格子的下标
+     */
+    private static IntList getAllUncheckedPoints(MineSweeper game) {
+        IntList toCheck = new IntList(MAX_WIN_RATE_NUM);
+        for (int i = 0; i < game.getRow(); ++i) for (int j = 0; j < game.getCol(); ++j) {
+            final int index = game.getIndex(i, j);
+            if (game.getPlayerBoard(index) != MineSweeper.UNCHECKED
+                    && game.getPlayerBoard(index) != MineSweeper.QUESTION) continue;
+            toCheck.add(index);
+        }
+        return  toCheck;
+    }
+
+    /**
+     * 获取以某点为中心、半径 radius 以内的所有数字格子的个数
+     * @param game 一局游戏
+     * @param x 目标格子 x 坐标
+     * @param y 目标格子 y 坐标
+     * @param radius 半径 (最终范围为边长 2r-1 的一个正方形)
+     * @return 数字格子个数
+     */
+    private static int getNumberCellCntAround(MineSweeper game, int x, int y, int radius) {
+        int res = 0;
+        for (int i = x - radius + 1; i < x + radius; ++i) for (int j = y - radius + 1; j < y + radius; ++j) {
+            if (i < 0 || i >= game.getRow() || j < 0 || j >= game.getCol()) continue;
+            if (i == x && j == y) continue;
+            if (game.getPlayerBoard(x, y) < 9) ++res;
+        }
+        return res;
+    }
+
+    /**
+     * 检查已知是数字的一个格子, 判断对其周围是否是雷的判定是否合法
+     * 数字格子周围的格子有三种状态: 数字 (或被假设为非雷的未知格子)、雷 (旗子或被假设为雷的未知格子)、未知 (还未被判定),
+     * 以此判定当前棋面是否可能存在.
+     * @param game 一局游戏
+     * @param board 棋局. 标记为 MINE 或 FLAG 说明判定为雷; 标记为 NOT_MINE 说明判定为非雷
+     * @param index 目标格子的下标
+     * @return 是否合法
+     */
+    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
+    private static boolean isUncoveredCellLegal(MineSweeper game, byte[] board, int index) {
+        final int num = board[index];
+        if (num > 8) return false;
+        int mineCnt = 0, uncheckedCnt = 0;
+        for (int d : game.getNeighborOffsets()) {
+            switch (board[index + d]) {
+                case MineSweeper.FLAG:
+                case MineSweeper.MINE:
+                case MineSweeper.RED_MINE:
+                case MineSweeper.GRAY_MINE:
+                    ++mineCnt;
+                    break;
+                case MineSweeper.UNCHECKED:
+                case MineSweeper.QUESTION:
+                    ++uncheckedCnt;
+                    break;
+                default: break;
+            }
+        }
+        if (uncheckedCnt == 0) return mineCnt == num;
+        return mineCnt <= num && mineCnt + uncheckedCnt >= num;
+    }
+
+    /**
+     * 检查一个非数字的格子, 根据周围的数字格子判断该格子在被判定为是雷/非雷的情况下是否合法
+     * @param game 一局游戏
+     * @param board 棋局. 标记为 MINE 或 FLAG 说明判定为雷; 标记为 NOT_MINE 说明判定为非雷
+     * @param index 目标格子的下标
+     * @return 是否合法
+     */
+    private static boolean isUncheckedCellLegal(MineSweeper game, byte[] board, int index) {
+        if (board[index] < 9) return false;
+        for (int d : game.getNeighborOffsets()) {
+            if (board[index + d] < 9 && !isUncoveredCellLegal(game, board, index + d)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 用一个 String 来作为一个局面的唯一标识, 可用于作为字典的 key
+     * @param board 局面
+     * @param toCheck 生成标识所涉及的所有格子下标
+     * @return 局面的唯一标识
+     */
+    private static String uriOfBoard(byte[] board, IntList toCheck) {
+        StringBuilder builder = new StringBuilder(toCheck.size());
+        for (int i = 0; i < toCheck.size(); ++i) {
+            final int state = board[toCheck.get(i)];
+            switch (state) {
+                case MineSweeper.UNCHECKED: case MineSweeper.QUESTION:
+                    builder.append('U'); break;
+                default: builder.append((char)('0' + state));
+            }
+        }
+        return builder.toString();
+    }
+
+    // 以下定义了一些杂七杂八的东西----------------------------------------------------------------------
+
+    /**
+     * 工具类, 不允许实例化
+     */
+    private AutoSweeper() {}
+
+    /**
+     * 控制台输出连通分量视图
+     * @param game 一局游戏 (用于获取棋盘尺寸)
+     * @param cc 方法 findAllConnectedComponent 的返回值
+     */
+    public static void printConnectedComponent(MineSweeper game, int[] cc) {
+        for (int i = 0; i < game.getCol(); ++i) System.out.print("---");
+        System.out.println();
+        for (int i = 0; i < game.getRow(); ++i) {
+            for (int j = 0; j < game.getCol(); ++j) {
+                int v = cc[game.getIndex(i, j)];
+                String s = String.valueOf(v);
+                if (v == CC_VISITED) s = ".";
+                else if (v == CC_UNKNOWN) s = " ";
+                System.out.print(" " + s + " ");
+            }
+            System.out.println();
+        }
+        for (int i = 0; i < game.getCol(); ++i) System.out.print("---");
+        System.out.println();
+    }
+
+    /**
+     * 控制台输出概率视图
+     * @param game 一局游戏 (用于获取棋盘尺寸)
+     * @param prob 方法 calculateProbability 的返回值
+     */
+    public static void printProbability(MineSweeper game, double[] prob) {
+        for (int i = 0; i < game.getCol(); ++i) System.out.print("-------");
+        System.out.println();
+        for (int i = 0; i < game.getRow(); ++i) {
+            for (int j = 0; j < game.getCol(); ++j) System.out.printf(" %.3f ", prob[game.getIndex(i, j)]);
+            System.out.println();
+        }
+        for (int i = 0; i < game.getCol(); ++i) System.out.print("-------");
+        System.out.println();
+    }
+
+    /**
+     * 仅通过检测周围8格, 确定目标未知格子是否有雷
+     * 要先找出周围所有数字格子, 再逐个判断数字格子周围8格, 最终判断范围达到了 5*5 格, 不建议使用该函数
+     * @param game 一局游戏
+     * @param x 目标格子 x 坐标
+     * @param y 目标格子 y 坐标
+     * @return AI认为是有、无雷还是未知
+     */
+    @Deprecated
+    public static int checkUncheckedCellBasic(MineSweeper game, int x, int y) {
+        if (game.getPlayerBoard(x, y) != MineSweeper.UNCHECKED
+                && game.getPlayerBoard(x, y) != MineSweeper.QUESTION) return UNKNOWN;
+        final int index = game.getIndex(x, y);
+        for (int d : game.getNeighborOffsets()) {
+            if (game.getPlayerBoard(index + d) < 9) {
+                int state = checkOneUncoveredCell(game, index + d);
+                if (state != UNKNOWN) return state;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * 扫描全盘, 根据游戏定义与减法公式, 判断是否存在必为雷或必不为雷的格子 (主要是 GUI 展示时用)
+     * @param game 一局游戏
+     * @return 如果找到了则 int 数组长度为 3, 第一个值代表类型, 第二、第三个值代表坐标 (只返回找到的第一个格子);
+     *         否则 int 数组长度为 1, 返回 { UNKNOWN }.
+     */
+    public static int[] checkAllBasedOnDefinition(MineSweeper game) {
+        final int[] offsets = game.getNeighborOffsets();
+        final int[] nextTo = {offsets[4], offsets[6]};
+        IntList safe = new IntList(3), mines = new IntList(3);
+        for (int x = 0; x < game.getRow(); ++x) for (int y = 0; y < game.getCol(); ++y) {
+            final int index = game.getIndex(x, y);
+            int type = checkOneUncoveredCell(game, index);
+            if (type != UNKNOWN) {
+                for (int d : offsets) {
+                    final int p = index + d;
+                    if (game.getPlayerBoard(p) != MineSweeper.UNCHECKED
+                            && game.getPlayerBoard(p) != MineSweeper.QUESTION) continue;
+                    return new int[]{type, game.getX(p), game.getY(p)};
+                }
+            }
+
+            for (int i = 0; i < 2; ++i) {
+                if (checkTwoUncoveredCell(game, index, index + nextTo[i], safe, mines)) {
+                    if (!safe.isEmpty()) return new int[]{NOT_MINE, game.getX(safe.get(0)), game.getY(safe.get(0))};
+                    if (!mines.isEmpty()) return new int[]{MINE, game.getX(mines.get(0)), game.getY(mines.get(0))};
+                }
+            }
+        }
+        return new int[]{UNKNOWN};
+    }
+
+    /**
+     * 计算并获得当前每个孤立区域的格子 (或所有格子) 的胜率
+     * 如果超出算力范围则不计算, 格子胜率设为 NaN. 如果算的是全局胜率, 则 areaGraph 返回 null;
+     * 反之如果计算的是局部胜率, areaGraph 标记不同孤立区域.
+     * @param game 一局游戏
+     * @return 所有格子的胜率 (以下标为索引, 如果计算耗时超标则全部返回 NaN)
+     */
+    public static Pair<int[], double[]> getWinRateGraph(MineSweeper game) {
+        double[] rateGraph = new double[game.getIndexBound()];
+        Arrays.fill(rateGraph, Double.NaN);
+        int[] areaGraph = new int[game.getIndexBound()];
+        int areaIndex = 0;
+        int notIsolatedCellCnt = game.getUncheckedCellLeft();
+        ProbResult pr = calculateAllProbabilities(game);
+        for (Pair<Pair<IntList, Integer>, byte[]> area : findAllIsolatedAreas(game, pr)) {
+            IntList toCheck = area.getKey().getKey();
+            int maxMineCnt = area.getKey().getValue();
+            byte[] board = area.getValue();
+            Map<String, Pair<Pair<Double, Double>, double[]>> vis
+                    = calculateAllWinRates(game, board, toCheck, maxMineCnt);
+            if (vis == null) continue;
+            notIsolatedCellCnt -= toCheck.size();
+            double[] rates = vis.get(uriOfBoard(board, toCheck)).getValue();
+            ++areaIndex;
+            for (int i = 0; i < toCheck.size(); ++i) {
+                rateGraph[toCheck.get(i)] = rates[i];
+                areaGraph[toCheck.get(i)] = areaIndex;
+            }
+        }
+        if (areaIndex == 1 && notIsolatedCellCnt == 0) {
+            // 如果该孤立区域即全部未知区域, 则把背景换成金色 (仅仅是为了展示好看易于理解)
+            areaGraph = null;
+        }
+        else if (areaIndex == 0) {
+            IntList toCheck = getAllUncheckedPoints(game);
+            Map<String, Pair<Pair<Double, Double>, double[]>> vis
+                    = calculateAllWinRates(game, game.getPackedPlayerBoard(), toCheck, game.getMineLeft());
+            if (vis != null) {
+                areaGraph = null;
+                double[] winRates = vis.get(uriOfBoard(game.readPackedPlayerBoard(), toCheck)).getValue();
+                for (int i = 0; i < winRates.length; ++i) {
+                    rateGraph[toCheck.get(i)] = winRates[i];
+                }
+            }
+        }
+        return new Pair<>(areaGraph, rateGraph);
+    }
+
+    /**
+     * 自定义一局
+     */
+    private static class DebugSweeper extends MineSweeper {
+        /**
+         * 以给定的棋盘构造 (直接使用 board 而不复制, 之后对 board 的修改请经过 setCell, 以保持计数正确)
+         * 只在构造时扫描一次棋盘.
+         * @param game 提供尺寸、雷数等信息的原游戏
+         * @param board 玩家视图
+         */
+        public DebugSweeper(MineSweeper game, byte[] board) {
+            super(); // 不经过 initGame, 免得新建一个马上就被 board 替换掉的玩家视图
+            this.state = PROCESS;
+            this.cheat = true;
+            this.row = game.getRow();
+            this.col = game.getCol();
+            this.mineCount = game.getMineCount();
+            this.gameRule = game.getGameRule();
+            this.geometry = game.geometry;
+            this.coveredCellLeft = this.row * this.col - this.mineCount;
+            this.mineLeft = this.mineCount;
+            this.playerBoard = board;
+            for (byte state : board) {
+                if (state <= 8) --coveredCellLeft;
+                else if (state == FLAG) --mineLeft;
+            }
+            this.step = 2;
+        }
+    }
+
+    /**
+     * 一个连通分量枚举出的所有排列, 按雷数分别统计. 雷数最多只到 min(格子数, 剩余雷数), 所以直接用以雷数为下标的稠密数组,
+     * 避免装箱的 HashMap 与 int 计数. 计数用 double: 2^53 以内是精确的整数, FrontierDp 能数出远超 long 范围的排列数也不会溢出.
+     */
+    public static class PermTally {
+        public final int size;            // 分量的格子数
+        public final double[] permCounts; // [m]: 有 m 个雷的排列个数
+        public final double[] cellCounts; // [m * size + i]: 有 m 个雷的排列中, 第 i 个格子为雷的次数
+        public int minMine, maxMine;      // 出现过的雷数范围 (还没有排列时 minMine > maxMine)
+
+        public PermTally(int size, int mineLeft) {
+            this.size = size;
+            this.permCounts = new double[Math.min(size, mineLeft) + 1];
+            this.cellCounts = new double[this.permCounts.length * size];
+            this.clear();
+        }
+
+        /**
+         * 记录枚举出的一个排列
+         * @param value 每个格子的取值 (1 为雷)
+         * @param mines 该排列的雷数
+         */
+        void add(byte[] value, int mines) {
+            final int row = mines * this.size;
+            for (int i = 0; i < this.size; ++i) this.cellCounts[row + i] += value[i];
+            ++this.permCounts[mines];
+            if (mines < this.minMine) this.minMine = mines;
+            if (mines > this.maxMine) this.maxMine = mines;
+        }
+
+        /**
+         * 不区分雷数, 统计每个格子在所有排列中为雷的次数
+         * @param out 长度为 size 的数组, 用于返回结果
+         */
+        void sumCellCounts(double[] out) {
+            Arrays.fill(out, 0);
+            for (int m = this.minMine; m <= this.maxMine; ++m) {
+                final int row = m * this.size;
+                for (int i = 0; i < this.size; ++i) out[i] += this.cellCounts[row + i];
+            }
+        }
+
+        /**
+         * 直接填写 permCounts 之后, 重新计算出现过的雷数范围
+         */
+        void updateMineRange() {
+            this.minMine = Integer.MAX_VALUE;
+            this.maxMine = -1;
+            for (int m = 0; m < this.permCounts.length; ++m) {
+                if (this.permCounts[m] == 0) continue;
+                this.minMine = Math.min(this.minMine, m);
+                this.maxMine = m;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(this.permCounts, 0);
+            Arrays.fill(this.cellCounts, 0);
+            this.minMine = Integer.MAX_VALUE;
+            this.maxMine = -1;
+        }
+    }
+
+    /**
+     * 计算概率时后续可能用到的返回值太多了, 遂单独列个类
+     * 图都以格子下标 (见 MineSweeper.getIndex) 为索引
+     */
+    public static class ProbResult {
+        public List<IntList> ccList;
+        public int[] ccGraph;
+        public List<PermTally> ccPermList;
+        public double[] probGraph;
+
+        public ProbResult() {}
+        public ProbResult(List<IntList> ccList, int[] ccGraph, List<PermTally> ccPermList, double[] probGraph) {
+            this.ccList = ccList;
+            this.ccGraph = ccGraph;
+            this.ccPermList = ccPermList;
+            this.probGraph = probGraph;
+        }
+    }
+}
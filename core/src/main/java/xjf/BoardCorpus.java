@@ -0,0 +1,126 @@
+package xjf;
+
+import java.io.*;
+
+/**
+ * 棋局语料文件 (*.mswc): 一个文件顺序存放任意多个棋局, 每个棋局附带种子与预期结果, 用于批量测试与回归.
+ * 读写都是流式的, 同一时刻只有一个棋局在内存中, 文件再大也不必整个读入.
+ * 文件格式 (大端):
+ *     文件头 8 字节: 魔数 "MSWC", 版本
+ *     之后每条记录: 棋局长度 (int), 种子 (long), 预期结果 (int, 即 WIN / LOSE, 未知为 PROCESS), 棋局 (BoardFile 的格式)
+ */
+public final class BoardCorpus {
+    public static final String EXTENSION = ".mswc";
+
+    private static final int MAGIC = 0x4D535743; // "MSWC"
+    private static final int VERSION = 1;
+
+    private BoardCorpus() {}
+
+    /**
+     * 语料中的一条记录
+     */
+    public static final class Entry {
+        private final long seed;
+        private final int expectedResult;
+        private final BoardFile board;
+
+        private Entry(long seed, int expectedResult, BoardFile board) {
+            this.seed = seed;
+            this.expectedResult = expectedResult;
+            this.board = board;
+        }
+
+        public long getSeed() { return this.seed; }
+        public int getExpectedResult() { return this.expectedResult; }
+        public BoardFile getBoard() { return this.board; }
+
+        /**
+         * 以该棋局新建一局游戏
+         * @return 新的游戏 (开启作弊)
+         */
+        public MineSweeper newGame() { return new MineSweeper(this.board); }
+    }
+
+    /**
+     * 顺序写入语料文件
+     */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private int count;
+
+        public Writer(File file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+        }
+
+        /**
+         * 追加一个棋局
+         * @param game 一局游戏 (写入的是它当前的局面)
+         * @param seed 该局的种子
+         * @param expectedResult 预期结果 (WIN / LOSE, 未知则为 PROCESS)
+         * @throws IOException 写文件可能出错
+         */
+        public void write(MineSweeper game, long seed, int expectedResult) throws IOException {
+            final long size = BoardFile.sizeOf(game.getRow(), game.getCol());
+            if (size > Integer.MAX_VALUE) throw new IOException("棋局太大, 无法放入语料: " + game.getRow() + "x" + game.getCol());
+            this.out.writeInt((int) size);
+            this.out.writeLong(seed);
+            this.out.writeInt(expectedResult);
+            BoardFile.write(game, this.out);
+            ++this.count;
+        }
+
+        public int getCount() { return this.count; }
+
+        @Override
+        public void close() throws IOException { this.out.close(); }
+    }
+
+    /**
+     * 顺序读取语料文件
+     */
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+
+        public Reader(File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            try {
+                if (this.in.readInt() != MAGIC) throw new IOException("不是语料文件: " + file.getName());
+                final int version = this.in.readInt();
+                if (version != VERSION) throw new IOException("不支持的语料文件版本: " + version);
+            }
+            catch (IOException e) {
+                this.in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * 读取下一条记录
+         * @return 下一条记录, 读完时返回 null
+         * @throws IOException 读文件出错或文件不完整
+         */
+        public Entry next() throws IOException {
+            final int size;
+            try { size = this.in.readInt(); }
+            catch (EOFException e) { return null; }
+            final long seed = this.in.readLong();
+            final int expectedResult = this.in.readInt();
+            // 先读棋局头部, 核对长度后再分配, 免得损坏的长度字段导致分配出错
+            if (size < BoardFile.PREFIX_SIZE) throw new IOException("语料文件损坏, 棋局长度不对: " + size);
+            final byte[] prefix = new byte[BoardFile.PREFIX_SIZE];
+            this.in.readFully(prefix);
+            final long expectedSize = BoardFile.sizeOf(prefix);
+            if (size != expectedSize) throw new IOException("语料文件损坏, 棋局长度 " + size + " 与其尺寸应有的 " + expectedSize + " 不符");
+            final byte[] bytes = new byte[size];
+            System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+            this.in.readFully(bytes, prefix.length, size - prefix.length);
+            return new Entry(seed, expectedResult, BoardFile.wrap(bytes));
+        }
+
+        @Override
+        public void close() throws IOException { this.in.close(); }
+    }
+}
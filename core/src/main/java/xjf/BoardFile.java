@@ -0,0 +1,317 @@
+package xjf;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 二进制的棋局文件 (*.mswb), 主要用于超大棋盘. 比文本格式的残局小得多 (每格约 4.1 位),
+ * 读取时通过 FileChannel.map 映射进内存, 打开只需常数时间, 内容在访问时才由操作系统按页读入.
+ * 文件格式 (大端):
+ *     头部 48 字节: 魔数 "MSWB", 版本, 行, 列, 雷数, 游戏规则, 游戏状态, 步数, 是否已埋雷,
+ *                   剩余的非雷未知格子数, 剩余雷数, 保留 (版本 1 的头部只有 40 字节, 没有这两个计数)
+ *     地雷位图: row * col 位, 格子按行优先编号, 第 k 格在第 k / 8 字节的第 k % 8 位, 长度补齐到 8 字节
+ *     玩家视图: 每格 4 位, 第 k 格在第 k / 2 字节 (偶数格在高 4 位), 编码见 CELL_DECODE
+ * 文本格式的残局 (残局_*.txt) 仍然照常支持, 见 MineSweeper.saveGameToFile.
+ * 语料文件 (见 BoardCorpus) 中的每个棋局也是同样的格式, 只是存放在堆内存而不是映射的文件里.
+ */
+public final class BoardFile {
+    public static final String EXTENSION = ".mswb";
+
+    private static final int MAGIC = 0x4D535742; // "MSWB"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 48;
+    private static final int HEADER_SIZE_V1 = 40;
+    static final int PREFIX_SIZE = 16;   // 魔数、版本、行、列, 见 sizeOf(byte[])
+    // 4 位编码 -> 玩家视图中的状态, 0 ~ 8 即数字本身
+    private static final byte[] CELL_DECODE = {0, 1, 2, 3, 4, 5, 6, 7, 8,
+            MineSweeper.UNCHECKED, MineSweeper.FLAG, MineSweeper.QUESTION, MineSweeper.MINE,
+            MineSweeper.NOT_MINE, MineSweeper.RED_MINE, MineSweeper.GRAY_MINE};
+
+    private final ByteBuffer buffer;
+    private final int row, col, mineCount, gameRule, state, step;
+    private final boolean hasMines;
+    private final int headerSize;
+    private final long cellsOffset;     // 玩家视图在文件中的起点
+    private int coveredCellLeft, mineLeft;
+    private boolean hasCounters;        // 版本 1 的文件没有存计数, 第一次用到时再数
+
+    private BoardFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE_V1 || buffer.getInt(0) != MAGIC) throw new IOException("不是棋局文件");
+        final int version = buffer.getInt(4);
+        if (version != VERSION && version != 1) throw new IOException("不支持的棋局文件版本: " + version);
+        this.headerSize = version == 1 ? HEADER_SIZE_V1 : HEADER_SIZE;
+        if (buffer.capacity() < this.headerSize) throw new IOException("棋局文件不完整");
+        this.row = buffer.getInt(8);
+        this.col = buffer.getInt(12);
+        this.mineCount = buffer.getInt(16);
+        this.gameRule = buffer.getInt(20);
+        this.state = buffer.getInt(24);
+        this.step = buffer.getInt(28);
+        this.hasMines = buffer.getInt(32) != 0;
+        if (this.row <= 0 || this.col <= 0 || (long) (this.row + 2) * (this.col + 2) > Integer.MAX_VALUE) {
+            throw new IOException("棋局文件的尺寸不可用: " + this.row + "x" + this.col);
+        }
+        if (version != 1) {
+            this.coveredCellLeft = buffer.getInt(36);
+            this.mineLeft = buffer.getInt(40);
+            this.hasCounters = true;
+        }
+        this.cellsOffset = this.headerSize + mineBytes(this.row, this.col);
+        if (buffer.capacity() < this.cellsOffset + ((long) this.row * this.col + 1) / 2) throw new IOException("棋局文件不完整");
+    }
+
+    /**
+     * 以只读方式映射一个棋局文件. 只读取头部, 地雷与玩家视图在访问时才会被读入
+     * @param file 文件
+     * @return 映射后的棋局文件
+     * @throws IOException 文件不存在或格式不对
+     */
+    public static BoardFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // 映射在通道关闭后依然有效
+            return new BoardFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 把一段内存当作棋局文件解析 (不复制)
+     * @param bytes 内容
+     * @return 棋局文件
+     * @throws IOException 格式不对
+     */
+    public static BoardFile wrap(byte[] bytes) throws IOException {
+        return new BoardFile(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 判断一个文件是不是二进制棋局文件 (只看魔数)
+     * @param file 文件
+     * @return 是否为二进制棋局文件
+     * @throws IOException 读文件可能出错
+     */
+    public static boolean isBoardFile(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        }
+        catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 把一局游戏写成二进制棋局文件
+     * @param game 一局游戏
+     * @param file 文件
+     * @throws IOException 写文件可能出错
+     */
+    public static void write(MineSweeper game, File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            write(game, out);
+        }
+    }
+
+    /**
+     * 把一局游戏按棋局文件的格式写入流中, 写入的长度恰为 sizeOf(row, col)
+     * @param game 一局游戏
+     * @param out 输出流
+     * @throws IOException 写入可能出错
+     */
+    static void write(MineSweeper game, DataOutputStream out) throws IOException {
+        final int row = game.getRow(), col = game.getCol();
+        final boolean hasMines = game.hasMineBoard();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(row);
+        out.writeInt(col);
+        out.writeInt(game.getMineCount());
+        out.writeInt(game.getGameRule());
+        out.writeInt(game.getGameState());
+        out.writeInt(game.getStep());
+        out.writeInt(hasMines ? 1 : 0);
+        out.writeInt(game.coveredCellLeft);
+        out.writeInt(game.mineLeft);
+        out.writeInt(0);
+
+        // 地雷位图与玩家视图都先攒在一块缓冲里再整块写出
+        final byte[] chunk = new byte[(int) Math.min(1 << 16, sizeOf(row, col))];
+        int len = 0, bits = 0, bitCount = 0;
+        for (int i = 0; i < row; ++i) for (int j = 0; j < col; ++j) {
+            if (hasMines && game.isMine(game.index(i, j))) bits |= 1 << bitCount;
+            if (++bitCount < 8) continue;
+            chunk[len++] = (byte) bits;
+            bits = bitCount = 0;
+            if (len == chunk.length) {
+                out.write(chunk, 0, len);
+                len = 0;
+            }
+        }
+        if (bitCount != 0) chunk[len++] = (byte) bits;
+        out.write(chunk, 0, len);
+        for (long k = ((long) row * col + 7) / 8; k < mineBytes(row, col); ++k) out.write(0);
+
+        // 玩家视图, 两格一个字节
+        len = 0;
+        boolean high = true;
+        for (int i = 0; i < row; ++i) for (int j = 0; j < col; ++j) {
+            final int code = encode(game.getPlayerBoard(game.index(i, j)));
+            high = !high;
+            if (!high) {
+                bits = code << 4;
+                continue;
+            }
+            chunk[len++] = (byte) (bits | code);
+            if (len == chunk.length) {
+                out.write(chunk, 0, len);
+                len = 0;
+            }
+        }
+        if (!high) chunk[len++] = (byte) bits;
+        out.write(chunk, 0, len);
+    }
+
+    public int getRow() { return this.row; }
+    public int getCol() { return this.col; }
+    public int getMineCount() { return this.mineCount; }
+    public int getGameRule() { return this.gameRule; }
+    public int getGameState() { return this.state; }
+    public int getStep() { return this.step; }
+    public boolean hasMines() { return this.hasMines; }
+
+    /**
+     * 剩余的非雷未知格子数 (同 MineSweeper.coveredCellLeft)
+     * @return 剩余的非雷未知格子数
+     */
+    public int getCoveredCellLeft() {
+        if (!this.hasCounters) this.countCells();
+        return this.coveredCellLeft;
+    }
+
+    /**
+     * 剩余雷数 (同 MineSweeper.mineLeft, 可为负数)
+     * @return 剩余雷数
+     */
+    public int getMineLeft() {
+        if (!this.hasCounters) this.countCells();
+        return this.mineLeft;
+    }
+
+    /**
+     * 查询某格是否是雷 (未埋雷的文件恒为 false)
+     * @param x 格子的 x 坐标
+     * @param y 格子的 y 坐标
+     * @return 是否是雷
+     */
+    public boolean isMine(int x, int y) {
+        final long k = (long) x * this.col + y;
+        return (this.buffer.get((int) (this.headerSize + (k >>> 3))) & (1 << (k & 7))) != 0;
+    }
+
+    /**
+     * 查询某格在玩家视图中的状态
+     * @param x 格子的 x 坐标
+     * @param y 格子的 y 坐标
+     * @return 玩家视图中的状态 (MineSweeper 中的宏或 0 ~ 8)
+     */
+    public int getCell(int x, int y) {
+        final long k = (long) x * this.col + y;
+        final int b = this.buffer.get((int) (this.cellsOffset + (k >>> 1)));
+        return CELL_DECODE[(k & 1) == 0 ? (b >>> 4) & 0xf : b & 0xf];
+    }
+
+    /**
+     * 把整个玩家视图解码进带边框的数组 (见 MineSweeper.Geometry). 按块批量读取, 不逐格经过 setCell,
+     * 所以计数不会随之更新, 需另从 getCoveredCellLeft、getMineLeft 取
+     * @param playerBoard 目标数组, 第 x 行第 y 列在 (x + 1) * stride + y + 1
+     * @param stride 目标数组每行的长度 (= col + 2)
+     */
+    void decodeCells(byte[] playerBoard, int stride) {
+        final ByteBuffer src = this.buffer.duplicate();
+        final byte[] chunk = new byte[Math.min(1 << 16, this.col / 2 + 2)];
+        for (int i = 0; i < this.row; ++i) {
+            long k = (long) i * this.col;
+            int p = (i + 1) * stride + 1, left = this.col;
+            while (left > 0) {
+                // 一段至多 2 * chunk.length - 2 格, 覆盖它们的字节 (含首尾的半个) 正好装得进 chunk
+                final int n = Math.min(left, 2 * chunk.length - 2);
+                src.position((int) (this.cellsOffset + (k >>> 1)));
+                src.get(chunk, 0, (int) (((k & 1) + n + 1) >>> 1));
+                final int end = p + n;
+                int b = 0, q = p;
+                if ((k & 1) != 0) playerBoard[q++] = CELL_DECODE[chunk[b++] & 0xf];
+                for (; q + 1 < end; q += 2, ++b) {
+                    playerBoard[q] = CELL_DECODE[(chunk[b] >>> 4) & 0xf];
+                    playerBoard[q + 1] = CELL_DECODE[chunk[b] & 0xf];
+                }
+                if (q < end) playerBoard[q] = CELL_DECODE[(chunk[b] >>> 4) & 0xf];
+                k += n;
+                p += n;
+                left -= n;
+            }
+        }
+    }
+
+    /**
+     * 版本 1 的文件没有存计数, 扫一遍玩家视图数出来
+     */
+    private void countCells() {
+        final long cells = (long) this.row * this.col;
+        int opened = 0, flagged = 0;
+        for (long k = 0; k < cells; ++k) {
+            final int b = this.buffer.get((int) (this.cellsOffset + (k >>> 1)));
+            final int code = (k & 1) == 0 ? (b >>> 4) & 0xf : b & 0xf;
+            if (code < 9) ++opened;
+            else if (CELL_DECODE[code] == MineSweeper.FLAG || CELL_DECODE[code] == MineSweeper.NOT_MINE) ++flagged;
+        }
+        this.coveredCellLeft = (int) (cells - this.mineCount - opened);
+        this.mineLeft = this.mineCount - flagged;
+        this.hasCounters = true;
+    }
+
+    /**
+     * 某尺寸的棋局文件的长度
+     * @param row 行数
+     * @param col 列数
+     * @return 字节数
+     */
+    public static long sizeOf(int row, int col) {
+        return sizeOf(HEADER_SIZE, row, col);
+    }
+
+    /**
+     * 只看头部的前 PREFIX_SIZE 字节 (魔数、版本、行、列), 算出整个棋局应有的长度. 用于在分配内存读入整个棋局之前检查长度
+     * @param prefix 头部的前 PREFIX_SIZE 字节
+     * @return 字节数
+     * @throws IOException 不是棋局或尺寸不可用
+     */
+    static long sizeOf(byte[] prefix) throws IOException {
+        final ByteBuffer header = ByteBuffer.wrap(prefix, 0, PREFIX_SIZE);
+        if (header.getInt(0) != MAGIC) throw new IOException("不是棋局文件");
+        final int version = header.getInt(4), row = header.getInt(8), col = header.getInt(12);
+        if (version != VERSION && version != 1) throw new IOException("不支持的棋局文件版本: " + version);
+        if (row <= 0 || col <= 0) throw new IOException("棋局文件的尺寸不可用: " + row + "x" + col);
+        return sizeOf(version == 1 ? HEADER_SIZE_V1 : HEADER_SIZE, row, col);
+    }
+
+    private static long sizeOf(int headerSize, int row, int col) {
+        return headerSize + mineBytes(row, col) + ((long) row * col + 1) / 2;
+    }
+
+    private static long mineBytes(int row, int col) { return ((long) row * col + 63) / 64 * 8; }
+
+    private static int encode(int cell) {
+        if (cell < 9) return cell;
+        switch (cell) {
+            case MineSweeper.UNCHECKED: return 9;
+            case MineSweeper.FLAG:      return 10;
+            case MineSweeper.QUESTION:  return 11;
+            case MineSweeper.MINE:      return 12;
+            case MineSweeper.NOT_MINE:  return 13;
+            case MineSweeper.RED_MINE:  return 14;
+            case MineSweeper.GRAY_MINE: return 15;
+            default: throw new IllegalArgumentException("无法编码的格子状态: " + cell);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package xjf;
+
+import xjf.util.IntList;
+
+import java.util.Arrays;
+
+/**
+ * 一个连通分量编译成的约束. 分量中的格子按 points 的顺序编号为 0 ~ cellCnt-1,
+ * 分量周围的每个数字格子对应一条约束: 它覆盖了分量中哪些格子、还差几个雷, 以及周围有几个分量外的未知格子
+ * (这些格子不属于该分量, 不会被赋值, 只作为空位). 供 FrontierEnumerator、FrontierDp 与 FrontierSplitter 共用.
+ */
+final class FrontierConstraints {
+    final int cellCnt, conCnt, words;
+    final int maxMine;          // 分量中最多有几个雷 (剩余雷数)
+    final int[][] cellCons;     // 每个格子所在的约束
+    final int[][] conCells;     // 每条约束覆盖的格子
+    final long[] conMask;       // [c * words + w]: 约束 c 覆盖的格子位图
+    final int[] need;           // 约束还差几个雷 (减去周围已标的雷)
+    final int[] outside;        // 约束周围分量外的未知格子数
+
+    /**
+     * 由已整理好的约束构造 (FrontierSplitter 固定分割点后的子问题就是这样构造的)
+     * @param cellCnt 格子数
+     * @param maxMine 最多有几个雷
+     * @param conCells 每条约束覆盖的格子
+     * @param need 每条约束还差几个雷
+     * @param outside 每条约束周围分量外的未知格子数
+     */
+    FrontierConstraints(int cellCnt, int maxMine, int[][] conCells, int[] need, int[] outside) {
+        this.cellCnt = cellCnt;
+        this.words = (cellCnt + 63) >>> 6;
+        this.maxMine = maxMine;
+        this.conCnt = conCells.length;
+        this.conCells = conCells;
+        this.need = need;
+        this.outside = outside;
+        this.conMask = new long[this.conCnt * this.words];
+        int[] cellConCnt = new int[cellCnt];
+        for (int c = 0; c < this.conCnt; ++c) {
+            for (int id : conCells[c]) {
+                this.conMask[c * this.words + (id >>> 6)] |= 1L << id;
+                ++cellConCnt[id];
+            }
+        }
+        this.cellCons = new int[cellCnt][];
+        for (int i = 0; i < cellCnt; ++i) this.cellCons[i] = new int[cellConCnt[i]];
+        Arrays.fill(cellConCnt, 0);
+        for (int c = 0; c < this.conCnt; ++c) {
+            for (int id : conCells[c]) this.cellCons[id][cellConCnt[id]++] = c;
+        }
+    }
+
+    /**
+     * 编译连通分量
+     * @param game 一局游戏 (提供邻居偏移量与剩余雷数)
+     * @param board 玩家面板
+     * @param points 一个连通分量所有的点
+     * @return 编译后的约束
+     */
+    static FrontierConstraints compile(MineSweeper game, byte[] board, IntList points) {
+        final int cellCnt = points.size();
+        final int[] offsets = game.getNeighborOffsets();
+
+        // 格子下标 -> 分量内编号, 用排序后的下标二分查找
+        final int[] sorted = points.toArray(), order = new int[cellCnt];
+        Arrays.sort(sorted);
+        for (int i = 0; i < cellCnt; ++i) order[Arrays.binarySearch(sorted, points.get(i))] = i;
+
+        // 分量周围的所有数字格子, 去重后每个对应一条约束
+        IntList numbers = new IntList(cellCnt * 2);
+        for (int i = 0; i < cellCnt; ++i) {
+            for (int d : offsets) if (board[points.get(i) + d] < 9) numbers.add(points.get(i) + d);
+        }
+        int[] cons = numbers.toArray();
+        Arrays.sort(cons);
+        int n = 0;
+        for (int i = 0; i < cons.length; ++i) if (i == 0 || cons[i] != cons[i - 1]) cons[n++] = cons[i];
+
+        int[] need = new int[n], outside = new int[n];
+        int[][] conCells = new int[n][];
+        IntList cells = new IntList(8);
+        for (int c = 0; c < n; ++c) {
+            int flags = 0;
+            cells.clear();
+            for (int d : offsets) {
+                final int q = cons[c] + d;
+                switch (board[q]) {
+                    case MineSweeper.FLAG:
+                    case MineSweeper.MINE:
+                    case MineSweeper.RED_MINE:
+                    case MineSweeper.GRAY_MINE:
+                        ++flags;
+                        break;
+                    case MineSweeper.UNCHECKED:
+                    case MineSweeper.QUESTION:
+                        final int k = Arrays.binarySearch(sorted, q);
+                        if (k < 0) ++outside[c];
+                        else cells.add(order[k]);
+                        break;
+                    default: break;
+                }
+            }
+            need[c] = board[cons[c]] - flags;
+            conCells[c] = cells.toArray();
+        }
+        return new FrontierConstraints(cellCnt, game.getMineLeft(), conCells, need, outside);
+    }
+}
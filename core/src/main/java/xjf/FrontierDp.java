@@ -0,0 +1,289 @@
+package xjf;
+
+import java.util.Arrays;
+
+/**
+ * 连通分量的转移矩阵 DP 计数引擎. 高级局面的分量多是一两格宽的长链, 约束图的路径宽度很小, 逐个枚举却是长度的指数级.
+ * 做法: 先把格子排成一条路径 (从链的一端出发, 每次贪心地选使 "已开始但未结束的约束" 最少的格子), 然后按顺序逐格
+ * 决定是不是雷, 状态只记录未结束的约束各已放了几个雷 (每条 4 位, 压进一个 long), 每个状态带一个以雷数为下标的情况数数组.
+ * 前向一遍得到每层各状态的前缀情况数, 后向一遍得到后缀情况数, 两者在某格为雷的转移上卷积, 就是该格在各雷数下为雷的次数.
+ * 耗时与分量长度成线性 (乘以每层状态数), 结果与 FrontierEnumerator 完全一致.
+ */
+final class FrontierDp {
+    private static final int MAX_WIDTH = 15;    // 状态中最多同时有几条未结束的约束 (15 * 4 位, 保证 long 不为负)
+
+    private final FrontierConstraints fc;
+    private final int[] order;          // 格子的处理顺序
+    private final int[] slotOf;         // 约束在状态中所占的槽位
+    private final int[][] restOf;       // restOf[v][i]: 处理完格子 v 后, v 的第 i 条约束还剩几个格子没处理
+    private final double cost;          // 估算的耗时, 路径太宽时为正无穷
+
+    FrontierDp(FrontierConstraints fc) {
+        this.fc = fc;
+        final int k = fc.cellCnt;
+        this.order = pathOrder(fc);
+        this.slotOf = new int[fc.conCnt];
+        this.restOf = new int[k][];
+
+        // 按处理顺序模拟一遍: 约束遇到第一个格子时分配槽位, 处理完最后一个格子时归还
+        int[] rest = new int[fc.conCnt];
+        for (int c = 0; c < fc.conCnt; ++c) rest[c] = fc.conCells[c].length;
+        boolean[] slotUsed = new boolean[MAX_WIDTH + 1];
+        boolean[] opened = new boolean[fc.conCnt];
+        int open = 0;
+        double cost = 0;
+        final int len = Math.min(k, fc.maxMine) + 1;
+        for (int t = 0; t < k && cost != Double.POSITIVE_INFINITY; ++t) {
+            final int v = this.order[t];
+            this.restOf[v] = new int[fc.cellCons[v].length];
+            for (int i = 0; i < fc.cellCons[v].length; ++i) {
+                final int c = fc.cellCons[v][i];
+                if (!opened[c]) {
+                    opened[c] = true;
+                    if (++open > MAX_WIDTH) {
+                        cost = Double.POSITIVE_INFINITY;
+                        break;
+                    }
+                    int slot = 0;
+                    while (slotUsed[slot]) ++slot;
+                    slotUsed[slot] = true;
+                    this.slotOf[c] = slot;
+                }
+                this.restOf[v][i] = --rest[c];
+                if (rest[c] == 0) {
+                    slotUsed[this.slotOf[c]] = false;
+                    --open;
+                }
+            }
+            if (cost == Double.POSITIVE_INFINITY) break;
+            // 该层状态数的上界: 每条未结束的约束已放的雷数不超过它的雷数, 也不超过它已处理的格子数
+            double states = 1;
+            for (int c = 0; c < fc.conCnt; ++c) {
+                if (opened[c] && rest[c] > 0) {
+                    states *= Math.min(Math.max(fc.need[c], 0), fc.conCells[c].length - rest[c]) + 1;
+                }
+            }
+            cost += states * len * len;
+        }
+        this.cost = cost;
+    }
+
+    /**
+     * DP 耗时的下界 (每层至少一个状态), 不需要先排出处理顺序
+     * @param fc 编译后的约束
+     * @return 基本操作次数的下界
+     */
+    static double minCost(FrontierConstraints fc) {
+        final int len = Math.min(fc.cellCnt, fc.maxMine) + 1;
+        return (double) fc.cellCnt * len * len;
+    }
+
+    /**
+     * @return 估算的基本操作次数, 路径太宽 (状态放不进 long) 时为正无穷
+     */
+    double getCost() { return this.cost; }
+
+    /**
+     * 统计分量中所有可行的雷布局, 按雷数记入 tally (tally 中格子的顺序与编译时的 points 一致)
+     * @param tally 按雷数统计的所有情况 (需为空)
+     * @return 可行排列总数
+     */
+    double count(AutoSweeper.PermTally tally) {
+        final int k = this.fc.cellCnt, len = tally.permCounts.length;
+
+        // 前向: layers[t] 为处理第 t 个格子之前的所有状态, 及各状态下前 t 个格子中有 m 个雷的情况数
+        Layer[] layers = new Layer[k + 1];
+        layers[0] = new Layer(len);
+        layers[0].poly[layers[0].add(0)] = 1;
+        for (int t = 0; t < k; ++t) {
+            final Layer cur = layers[t], nxt = layers[t + 1] = new Layer(len);
+            for (int s = 0; s < cur.size; ++s) {
+                for (int val = 0; val <= 1; ++val) {
+                    final long state = this.next(cur.keys[s], t, val);
+                    if (state < 0) continue;
+                    final int to = nxt.add(state) * len, from = s * len;
+                    for (int m = 0; m + val < len; ++m) nxt.poly[to + m + val] += cur.poly[from + m];
+                }
+            }
+        }
+        final Layer last = layers[k];
+        if (last.size == 0) return 0; // 所有约束都结束了, 最后一层只可能有状态 0
+        System.arraycopy(last.poly, 0, tally.permCounts, 0, len);
+
+        // 后向: back[s] 为第 t 层状态 s 之后 (第 t ~ k-1 个格子) 有 m 个雷的情况数
+        double[] back = new double[len], prev;
+        back[0] = 1;
+        for (int t = k - 1; t >= 0; --t) {
+            final Layer cur = layers[t], nxt = layers[t + 1];
+            final int v = this.order[t];
+            prev = new double[cur.size * len];
+            for (int s = 0; s < cur.size; ++s) {
+                final int from = s * len;
+                for (int val = 0; val <= 1; ++val) {
+                    final long state = this.next(cur.keys[s], t, val);
+                    if (state < 0) continue;
+                    final int to = nxt.find(state) * len;
+                    for (int m = 0; m + val < len; ++m) prev[from + m + val] += back[to + m];
+                    if (val == 0) continue;
+                    // 该格为雷: 前缀 (a 个雷) 与后缀 (b 个雷) 卷积, 记入 a + 1 + b 个雷的那一行
+                    for (int a = 0; a <= t && a + 1 < len; ++a) {
+                        final double f = cur.poly[from + a];
+                        if (f == 0) continue;
+                        for (int b = 0; a + 1 + b < len; ++b) {
+                            tally.cellCounts[(a + 1 + b) * k + v] += f * back[to + b];
+                        }
+                    }
+                }
+            }
+            back = prev;
+        }
+        tally.updateMineRange();
+
+        double res = 0;
+        for (double c : tally.permCounts) res += c;
+        return res;
+    }
+
+    /**
+     * 状态转移: 第 t 个格子取 val (1 为雷) 后的新状态
+     * @return 新状态, 违反约束时返回 -1
+     */
+    private long next(long state, int t, int val) {
+        final int v = this.order[t];
+        final int[] cons = this.fc.cellCons[v];
+        for (int i = 0; i < cons.length; ++i) {
+            final int c = cons[i], shift = this.slotOf[c] << 2;
+            final int cnt = (int) (state >>> shift & 15) + val;
+            final int left = this.fc.need[c] - cnt, rest = this.restOf[v][i];
+            if (left < 0 || left > rest + this.fc.outside[c]) return -1;
+            state &= ~(15L << shift);
+            if (rest > 0) state |= (long) cnt << shift; // 约束结束后归还槽位, 清零以便复用
+        }
+        return state;
+    }
+
+    /**
+     * 排出格子的处理顺序: 从离格子 0 最远的格子 (近似为链的一端) 出发, 每次在已开始的约束里选一个格子,
+     * 使新开始的约束最少、结束的约束最多, 相同时选离起点近的.
+     */
+    private static int[] pathOrder(FrontierConstraints fc) {
+        final int k = fc.cellCnt;
+        if (k == 0) return new int[0];
+        int[] dist = bfs(fc, 0);
+        int start = 0;
+        for (int i = 0; i < k; ++i) if (dist[i] > dist[start]) start = i;
+        dist = bfs(fc, start);
+
+        int[] order = new int[k], rest = new int[fc.conCnt];
+        boolean[] done = new boolean[k], opened = new boolean[fc.conCnt];
+        for (int c = 0; c < fc.conCnt; ++c) rest[c] = fc.conCells[c].length;
+        for (int t = 0; t < k; ++t) {
+            int best = -1, bestScore = 0;
+            boolean bestFrontier = false;
+            for (int v = 0; v < k; ++v) {
+                if (done[v]) continue;
+                boolean frontier = false;
+                int score = 0;
+                for (int c : fc.cellCons[v]) {
+                    if (opened[c]) frontier = true;
+                    if (!opened[c] && rest[c] > 1) ++score;
+                    else if (opened[c] && rest[c] == 1) --score;
+                }
+                if (best < 0 || (frontier && !bestFrontier)
+                        || (frontier == bestFrontier && (score < bestScore
+                        || (score == bestScore && dist[v] < dist[best])))) {
+                    best = v;
+                    bestScore = score;
+                    bestFrontier = frontier;
+                }
+            }
+            order[t] = best;
+            done[best] = true;
+            for (int c : fc.cellCons[best]) {
+                opened[c] = true;
+                --rest[c];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * 格子之间的 BFS 距离 (同在一条约束里的格子相邻), 不可达的为 k
+     */
+    private static int[] bfs(FrontierConstraints fc, int from) {
+        final int k = fc.cellCnt;
+        int[] dist = new int[k], que = new int[k];
+        Arrays.fill(dist, k);
+        dist[from] = 0;
+        que[0] = from;
+        for (int head = 0, tail = 1; head < tail; ++head) {
+            final int v = que[head];
+            for (int c : fc.cellCons[v]) {
+                for (int u : fc.conCells[c]) {
+                    if (dist[u] != k) continue;
+                    dist[u] = dist[v] + 1;
+                    que[tail++] = u;
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * DP 的一层: 状态 -> 编号 的开放寻址哈希表, 以及各状态的情况数数组 (按编号平铺)
+     */
+    private static final class Layer {
+        private final int len;
+        private int[] table;
+        long[] keys;
+        double[] poly;
+        int size;
+
+        Layer(int len) {
+            this.len = len;
+            this.table = new int[16];
+            Arrays.fill(this.table, -1);
+            this.keys = new long[8];
+            this.poly = new double[8 * len];
+        }
+
+        int find(long key) {
+            final int mask = this.table.length - 1;
+            for (int h = hash(key) & mask; ; h = (h + 1) & mask) {
+                final int id = this.table[h];
+                if (id < 0 || this.keys[id] == key) return id;
+            }
+        }
+
+        int add(long key) {
+            final int mask = this.table.length - 1;
+            int h = hash(key) & mask;
+            for (; this.table[h] >= 0; h = (h + 1) & mask) {
+                if (this.keys[this.table[h]] == key) return this.table[h];
+            }
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, this.size * 2);
+                this.poly = Arrays.copyOf(this.poly, this.size * 2 * this.len);
+            }
+            this.keys[this.size] = key;
+            this.table[h] = this.size;
+            if (++this.size * 2 > this.table.length) this.rehash();
+            return this.size - 1;
+        }
+
+        private void rehash() {
+            this.table = new int[this.table.length * 2];
+            Arrays.fill(this.table, -1);
+            final int mask = this.table.length - 1;
+            for (int id = 0; id < this.size; ++id) {
+                int h = hash(this.keys[id]) & mask;
+                while (this.table[h] >= 0) h = (h + 1) & mask;
+                this.table[h] = id;
+            }
+        }
+
+        private static int hash(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package xjf;
+
+import xjf.util.IntList;
+
+import java.util.Arrays;
+
+/**
+ * 连通分量的雷布局枚举器, 代替逐格回溯 + 反复检查周围数字格子的做法.
+ * 分量先编译成约束 (见 FrontierConstraints), 每条约束另外记录还剩几个空位. 搜索时:
+ * 1. 每次赋值只增量修改相关约束的计数器, 撤销时原样改回;
+ * 2. 单元传播: 约束还差 0 个雷时其余格子必不为雷, 差的雷数等于空位数时其余格子必为雷, 连锁推下去, 矛盾立即回退;
+ * 3. 优先在剩余空位最少的约束里选格子分支 (最受约束优先), 尽早发现矛盾.
+ * 只读 board, 不修改.
+ */
+final class FrontierEnumerator {
+    // 相邻约束共用格子, 真实的搜索树规模远小于各格子独立时的估计, 按实测取估计的对数规模的这个比例
+    private static final double ENTROPY_SHARE = 0.5;
+
+    private final FrontierConstraints fc;
+    private final AutoSweeper.PermTally tally;
+    private final int cellCnt, conCnt, words;
+
+    private final int[] need;           // 约束还差几个雷
+    private final int[] unassigned;     // 约束覆盖的格子中还有几个没赋值
+
+    private final byte[] value;         // 格子的取值: -1 未赋值, 0 不是雷, 1 是雷
+    private final long[] assigned;      // 已赋值格子的位图
+    private final IntList trail;        // 赋值顺序, 撤销时按此回退
+    private final IntList queue;        // 单元传播中待检查的约束
+    private int mines;
+
+    private FrontierEnumerator(FrontierConstraints fc, AutoSweeper.PermTally tally) {
+        this.fc = fc;
+        this.tally = tally;
+        this.cellCnt = fc.cellCnt;
+        this.conCnt = fc.conCnt;
+        this.words = fc.words;
+        this.need = fc.need.clone();
+        this.unassigned = new int[this.conCnt];
+        for (int c = 0; c < this.conCnt; ++c) this.unassigned[c] = fc.conCells[c].length;
+        this.value = new byte[this.cellCnt];
+        Arrays.fill(this.value, (byte) -1);
+        this.assigned = new long[this.words];
+        this.trail = new IntList(this.cellCnt);
+        this.queue = new IntList(this.conCnt);
+    }
+
+    /**
+     * 每个格子的不确定度 (比特): 取它所在约束中最确定的一条, 按该约束的雷密度计算二进制熵
+     * @param fc 编译后的约束
+     * @return 每个格子的熵
+     */
+    static double[] cellEntropy(FrontierConstraints fc) {
+        double[] bits = new double[fc.cellCnt];
+        for (int i = 0; i < fc.cellCnt; ++i) {
+            double h = 1;
+            for (int c : fc.cellCons[i]) {
+                final double p = (double) fc.need[c] / (fc.conCells[c].length + fc.outside[c]);
+                h = Math.min(h, p <= 0 || p >= 1 ? 0 : -(p * Math.log(p) + (1 - p) * Math.log(1 - p)) / Math.log(2));
+            }
+            bits[i] = h;
+        }
+        return bits;
+    }
+
+    /**
+     * 估算枚举的耗时: 各格子的熵之和即为搜索树的 (对数) 规模.
+     * 实际上相邻约束会互相限制, 可行排列远比这少, 所以只作为与其他引擎比较的粗略上界.
+     * @param fc 编译后的约束
+     * @return 估算的基本操作次数
+     */
+    static double estimateCost(FrontierConstraints fc) {
+        double bits = 0;
+        for (double h : cellEntropy(fc)) bits += h;
+        return estimateCost(bits, fc.cellCnt);
+    }
+
+    /**
+     * @param bits 各格子的熵之和
+     * @param cellCnt 格子数
+     * @return 估算的基本操作次数
+     */
+    static double estimateCost(double bits, int cellCnt) {
+        return Math.pow(2, bits * ENTROPY_SHARE) * cellCnt;
+    }
+
+    /**
+     * 枚举分量中所有可行的雷布局, 按雷数记入 tally (tally 中格子的顺序与编译时的 points 一致)
+     * @param fc 编译后的约束
+     * @param tally 按雷数统计的所有情况
+     * @return 可行排列总数
+     */
+    static double count(FrontierConstraints fc, AutoSweeper.PermTally tally) {
+        FrontierEnumerator e = new FrontierEnumerator(fc, tally);
+        for (int c = 0; c < e.conCnt; ++c) e.queue.add(c);
+        if (!e.propagate()) return 0;
+        return e.search();
+    }
+
+    private long search() {
+        final int v = this.pickCell();
+        if (v < 0) {
+            this.tally.add(this.value, this.mines);
+            return 1;
+        }
+        long res = 0;
+        for (int val = 1; val >= 0; --val) {
+            final int mark = this.trail.size();
+            this.queue.clear();
+            if (this.assign(v, val) && this.propagate()) res += this.search();
+            this.undo(mark);
+        }
+        return res;
+    }
+
+    /**
+     * 最受约束优先: 在还有未赋值格子且未赋值格子最少的约束里取一个格子; 不在任何约束里的格子最后再取
+     * @return 格子编号, 全部赋值完毕时返回 -1
+     */
+    private int pickCell() {
+        int best = -1;
+        for (int c = 0; c < this.conCnt; ++c) {
+            if (this.unassigned[c] > 0 && (best < 0 || this.unassigned[c] < this.unassigned[best])) {
+                best = c;
+                if (this.unassigned[c] == 1) break;
+            }
+        }
+        if (best >= 0) {
+            for (int w = 0; w < this.words; ++w) {
+                final long free = this.fc.conMask[best * this.words + w] & ~this.assigned[w];
+                if (free != 0) return (w << 6) | Long.numberOfTrailingZeros(free);
+            }
+        }
+        for (int i = 0; i < this.cellCnt; ++i) if (this.value[i] < 0) return i;
+        return -1;
+    }
+
+    /**
+     * 给格子赋值并增量更新相关约束, 受影响的约束放入 queue 等待传播
+     * @return 赋值后是否仍可能可行 (无论结果如何, 赋值都已记入 trail, 需要由调用者撤销)
+     */
+    private boolean assign(int v, int val) {
+        this.value[v] = (byte) val;
+        this.assigned[v >>> 6] |= 1L << v;
+        this.trail.add(v);
+        this.mines += val;
+        for (int c : this.fc.cellCons[v]) {
+            --this.unassigned[c];
+            this.need[c] -= val;
+            this.queue.add(c);
+        }
+        return this.mines <= this.fc.maxMine;
+    }
+
+    private void undo(int mark) {
+        for (int t = this.trail.size() - 1; t >= mark; --t) {
+            final int v = this.trail.get(t);
+            final int val = this.value[v];
+            for (int c : this.fc.cellCons[v]) {
+                ++this.unassigned[c];
+                this.need[c] += val;
+            }
+            this.mines -= val;
+            this.value[v] = -1;
+            this.assigned[v >>> 6] &= ~(1L << v);
+        }
+        this.trail.truncate(mark);
+    }
+
+    /**
+     * 单元传播, 处理 queue 中的约束直到没有可推出的格子
+     * @return 是否没有矛盾
+     */
+    private boolean propagate() {
+        for (int head = 0; head < this.queue.size(); ++head) {
+            final int c = this.queue.get(head);
+            final int slots = this.unassigned[c] + this.fc.outside[c];
+            if (this.need[c] < 0 || this.need[c] > slots) return false;
+            if (this.unassigned[c] == 0) continue;
+            final int forced;
+            if (this.need[c] == 0) forced = 0;
+            else if (this.need[c] == slots) forced = 1;
+            else continue;
+            for (int w = 0; w < this.words; ++w) {
+                long free = this.fc.conMask[c * this.words + w] & ~this.assigned[w];
+                for (; free != 0; free &= free - 1) {
+                    if (!this.assign((w << 6) | Long.numberOfTrailingZeros(free), forced)) return false;
+                }
+            }
+        }
+        return true;
+    }
+}
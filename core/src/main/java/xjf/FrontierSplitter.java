@@ -0,0 +1,243 @@
+package xjf;
+
+/**
+ * 连通分量的分治计数. 分量中常有一两个格子把两大块连在一起, 整体计数的耗时是两块耗时的乘积.
+ * 做法: 在格子图 (同在一条约束里的格子相邻) 中找一个至多两个格子的点分割集, 逐一枚举分割集的取值,
+ * 取值固定后各块之间再无共同约束, 分别计数 (交给 AutoSweeper.tallyPermutations 在枚举与 DP 中选择), 再按雷数卷积合并.
+ * 耗时变为各块耗时之和乘以 2^|分割集|. 结果与 FrontierEnumerator 完全一致.
+ */
+final class FrontierSplitter {
+    private static final int MAX_PAIR_SEARCH_CELLS = 128;   // 格子数超过它就只找单个格子的分割点, 否则找分割点本身太慢
+    private static final double MIN_GAIN = 16;  // 耗时只是粗略估算, 且分治要多次构造子问题, 估算快这么多倍才分治
+
+    private final FrontierConstraints fc;
+    private final int[] separator;      // 分割集中的格子
+    private final int[][] partCells;    // 每一块的格子 (块内编号 -> 分量内编号)
+    private final int[][] partCons;     // 与每一块相关的约束
+    private final int[][][] partConCells; // 与每一块相关的约束覆盖的块内格子 (块内编号)
+    private final int[] sepCons;        // 只覆盖分割集格子的约束
+
+    private FrontierSplitter(FrontierConstraints fc, int[] separator, int[] part, int partCnt) {
+        this.fc = fc;
+        this.separator = separator;
+        int[] local = new int[fc.cellCnt], partSize = new int[partCnt];
+        for (int i = 0; i < fc.cellCnt; ++i) if (part[i] >= 0) local[i] = partSize[part[i]]++;
+        this.partCells = new int[partCnt][];
+        for (int p = 0; p < partCnt; ++p) this.partCells[p] = new int[partSize[p]];
+        for (int i = 0; i < fc.cellCnt; ++i) if (part[i] >= 0) this.partCells[part[i]][local[i]] = i;
+
+        // 每条约束至多与一块相关 (否则这两块就连在一起了)
+        int[] conPart = new int[fc.conCnt], partConCnt = new int[partCnt];
+        int sepConCnt = 0;
+        for (int c = 0; c < fc.conCnt; ++c) {
+            conPart[c] = -1;
+            for (int id : fc.conCells[c]) if (part[id] >= 0) conPart[c] = part[id];
+            if (conPart[c] < 0) ++sepConCnt;
+            else ++partConCnt[conPart[c]];
+        }
+        this.sepCons = new int[sepConCnt];
+        this.partCons = new int[partCnt][];
+        this.partConCells = new int[partCnt][][];
+        for (int p = 0; p < partCnt; ++p) {
+            this.partCons[p] = new int[partConCnt[p]];
+            this.partConCells[p] = new int[partConCnt[p]][];
+            partConCnt[p] = 0;
+        }
+        sepConCnt = 0;
+        for (int c = 0; c < fc.conCnt; ++c) {
+            final int p = conPart[c];
+            if (p < 0) {
+                this.sepCons[sepConCnt++] = c;
+                continue;
+            }
+            int n = 0;
+            for (int id : fc.conCells[c]) if (part[id] >= 0) ++n;
+            int[] cells = new int[n];
+            n = 0;
+            for (int id : fc.conCells[c]) if (part[id] >= 0) cells[n++] = local[id];
+            this.partCons[p][partConCnt[p]] = c;
+            this.partConCells[p][partConCnt[p]++] = cells;
+        }
+    }
+
+    /**
+     * 找分割点的耗时: 逐个 (或逐对) 删掉格子后遍历一次格子图
+     * @param fc 编译后的约束
+     * @return 估算的基本操作次数
+     */
+    static double searchCost(FrontierConstraints fc) {
+        double edges = 0;
+        for (int[] cells : fc.conCells) edges += cells.length * cells.length;
+        final double single = fc.cellCnt * (fc.cellCnt + edges);
+        return fc.cellCnt <= MAX_PAIR_SEARCH_CELLS ? single * fc.cellCnt / 2 : single;
+    }
+
+    /**
+     * 找出估算耗时最小的分割方式
+     * @param fc 编译后的约束
+     * @param bound 不分割时的估算耗时, 分割后的估算耗时需低于它的 1/MIN_GAIN 才分割
+     * @return 分割方式, 找不到时返回 null
+     */
+    static FrontierSplitter find(FrontierConstraints fc, double bound) {
+        final int k = fc.cellCnt;
+        final double[] bits = FrontierEnumerator.cellEntropy(fc);
+        final int[] label = new int[k], que = new int[k];
+        final boolean[] removed = new boolean[k];
+        double bestCost = bound / MIN_GAIN;
+        int[] bestSeparator = null;
+        for (int a = 0; a < k; ++a) {
+            removed[a] = true;
+            final double cost = splitCost(fc, bits, removed, 1, label, que);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestSeparator = new int[] { a };
+            }
+            removed[a] = false;
+        }
+        // 单个格子分不开时才找一对格子
+        for (int a = 0; bestSeparator == null && k <= MAX_PAIR_SEARCH_CELLS && a < k; ++a) {
+            removed[a] = true;
+            for (int b = a + 1; b < k; ++b) {
+                removed[b] = true;
+                final double cost = splitCost(fc, bits, removed, 2, label, que);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestSeparator = new int[] { a, b };
+                }
+                removed[b] = false;
+            }
+            removed[a] = false;
+        }
+        if (bestSeparator == null) return null;
+        for (int s : bestSeparator) removed[s] = true;
+        final int partCnt = labelParts(fc, removed, label, que);
+        return new FrontierSplitter(fc, bestSeparator, label, partCnt);
+    }
+
+    /**
+     * 删掉 removed 中的格子后分割的估算耗时: 2^|分割集| * 各块的估算耗时之和
+     * @return 估算的基本操作次数, 没能分成两块以上时为正无穷
+     */
+    private static double splitCost(FrontierConstraints fc, double[] bits, boolean[] removed, int sepCnt,
+                                    int[] label, int[] que) {
+        final int partCnt = labelParts(fc, removed, label, que);
+        if (partCnt < 2) return Double.POSITIVE_INFINITY;
+        double[] partBits = new double[partCnt];
+        int[] partSize = new int[partCnt];
+        for (int i = 0; i < fc.cellCnt; ++i) {
+            if (label[i] < 0) continue;
+            partBits[label[i]] += bits[i];
+            ++partSize[label[i]];
+        }
+        double cost = 0;
+        for (int p = 0; p < partCnt; ++p) cost += FrontierEnumerator.estimateCost(partBits[p], partSize[p]);
+        return cost * (1 << sepCnt);
+    }
+
+    /**
+     * 删掉 removed 中的格子后, 给剩下的格子按连通块编号
+     * @param label 用于返回每个格子的块编号, 删掉的格子为 -1
+     * @return 块数
+     */
+    private static int labelParts(FrontierConstraints fc, boolean[] removed, int[] label, int[] que) {
+        final int k = fc.cellCnt;
+        for (int i = 0; i < k; ++i) label[i] = removed[i] ? -1 : -2;
+        int partCnt = 0;
+        for (int i = 0; i < k; ++i) {
+            if (label[i] != -2) continue;
+            label[i] = partCnt;
+            que[0] = i;
+            for (int head = 0, tail = 1; head < tail; ++head) {
+                for (int c : fc.cellCons[que[head]]) {
+                    for (int u : fc.conCells[c]) {
+                        if (label[u] != -2) continue;
+                        label[u] = partCnt;
+                        que[tail++] = u;
+                    }
+                }
+            }
+            ++partCnt;
+        }
+        return partCnt;
+    }
+
+    /**
+     * 统计分量中所有可行的雷布局, 按雷数记入 tally (tally 中格子的顺序与编译时的 points 一致)
+     * @param tally 按雷数统计的所有情况 (需为空)
+     * @return 可行排列总数
+     */
+    double count(AutoSweeper.PermTally tally) {
+        final int k = this.fc.cellCnt, len = tally.permCounts.length, partCnt = this.partCells.length;
+        final int[] need = new int[this.fc.conCnt];
+        final AutoSweeper.PermTally[] subs = new AutoSweeper.PermTally[partCnt];
+        for (int mask = 0; mask < 1 << this.separator.length; ++mask) {
+            final int mines = Integer.bitCount(mask);
+            if (mines >= len) continue;
+
+            // 分割集的取值固定后, 各约束还差几个雷; 只覆盖分割集的约束此时已可判断是否满足
+            System.arraycopy(this.fc.need, 0, need, 0, need.length);
+            for (int i = 0; i < this.separator.length; ++i) {
+                if ((mask >>> i & 1) == 0) continue;
+                for (int c : this.fc.cellCons[this.separator[i]]) --need[c];
+            }
+            boolean feasible = true;
+            for (int c : this.sepCons) {
+                if (need[c] < 0 || need[c] > this.fc.outside[c]) feasible = false;
+            }
+
+            // 各块分别计数
+            for (int p = 0; p < partCnt && feasible; ++p) {
+                final int[] cons = this.partCons[p];
+                int[] subNeed = new int[cons.length], subOutside = new int[cons.length];
+                for (int i = 0; i < cons.length; ++i) {
+                    subNeed[i] = need[cons[i]];
+                    subOutside[i] = this.fc.outside[cons[i]];
+                }
+                final int size = this.partCells[p].length, maxMine = this.fc.maxMine - mines;
+                FrontierConstraints sub = new FrontierConstraints(size, maxMine, this.partConCells[p], subNeed, subOutside);
+                subs[p] = new AutoSweeper.PermTally(size, maxMine);
+                if (AutoSweeper.tallyPermutations(sub, subs[p], false) == 0) feasible = false;
+            }
+            if (!feasible) continue;
+
+            // 合并: 整体 = x^mines * 各块之积; 块内格子为雷的次数 = 块内计数 * 其他块之积 (含分割集)
+            double[] all = new double[len];
+            all[mines] = 1;
+            for (int p = 0; p < partCnt; ++p) all = multiply(all, subs[p].permCounts, len);
+            for (int m = 0; m < len; ++m) tally.permCounts[m] += all[m];
+            for (int i = 0; i < this.separator.length; ++i) {
+                if ((mask >>> i & 1) == 0) continue;
+                for (int m = 0; m < len; ++m) tally.cellCounts[m * k + this.separator[i]] += all[m];
+            }
+            for (int p = 0; p < partCnt; ++p) {
+                double[] others = new double[len];
+                others[mines] = 1;
+                for (int q = 0; q < partCnt; ++q) if (q != p) others = multiply(others, subs[q].permCounts, len);
+                final AutoSweeper.PermTally sub = subs[p];
+                final int[] cells = this.partCells[p];
+                for (int a = sub.minMine; a <= sub.maxMine; ++a) {
+                    for (int b = 0; a + b < len; ++b) {
+                        if (others[b] == 0) continue;
+                        for (int j = 0; j < cells.length; ++j) {
+                            tally.cellCounts[(a + b) * k + cells[j]] += sub.cellCounts[a * cells.length + j] * others[b];
+                        }
+                    }
+                }
+            }
+        }
+        tally.updateMineRange();
+
+        double res = 0;
+        for (double c : tally.permCounts) res += c;
+        return res;
+    }
+
+    private static double[] multiply(double[] a, double[] b, int len) {
+        double[] res = new double[len];
+        for (int i = 0; i < a.length && i < len; ++i) {
+            if (a[i] == 0) continue;
+            for (int j = 0; j < b.length && i + j < len; ++j) res[i + j] += a[i] * b[j];
+        }
+        return res;
+    }
+}
@@ -0,0 +1,280 @@
+package xjf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * 超大棋盘 (如 10000 * 10000) 的扫雷.
+ * 玩家视图仍是每格一字节, 但地雷视图按 64 * 64 分块 (tile), 每块在第一次被访问时才由种子生成;
+ * 数字视图也不预先算好, 揭开格子时现数周围的雷. 于是不必一开局就把整个雷区铺出来.
+ * 各块的雷数由一棵覆盖所有块的二叉树自顶向下逐层按超几何分布分配, 所以全局雷数总是精确等于 mineCount,
+ * 而且任意一块的雷数只取决于种子, 与块的生成顺序无关.
+ * 也可以从二进制棋局文件 (见 BoardFile) 读取, 此时雷直接从映射的文件中查, 用到哪页才读入哪页.
+ */
+public class HugeSweeper extends MineSweeper {
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;   // 每块 64 * 64 格, 块内每行的雷恰好是一个 long
+    private static final int EXACT_SPLIT_LIMIT = 256;       // 分配雷数时, 需要抽取的次数不超过它就逐个精确抽样, 否则用正态近似
+
+    private long seed;                          // 雷区种子 (第一步左击时从 random 取得)
+    private int tileRows, tileCols;             // 块的行、列数
+    private long[] capacityPrefix;              // 各块可埋雷的格子数的前缀和 (块按行优先编号), 已扣除第一步周围的安全区
+    private long[][] tiles;                     // 各块的雷位图 (tiles[t][i] 的第 j 位即块内第 i 行第 j 列), 未生成的为 null
+    private int safeX0, safeX1, safeY0, safeY1; // 第一步周围不能有雷的矩形 (闭区间)
+    private BoardFile mappedMines;              // 从棋局文件读取时, 雷直接从映射的文件中查 (文件中未埋雷则为 null)
+
+    /**
+     * 构造函数, 默认作弊关闭、WinXP 版本规则
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     */
+    public HugeSweeper(int row, int col, int mineCount) {
+        this(row, col, mineCount, false, GAME_RULE_WIN_XP);
+    }
+
+    /**
+     * 构造函数, 默认关闭作弊
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     * @param gameRule 游戏规则版本
+     */
+    public HugeSweeper(int row, int col, int mineCount, int gameRule) {
+        this(row, col, mineCount, false, gameRule);
+    }
+
+    /**
+     * 最全的构造函数
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     * @param cheat 作弊与否
+     * @param gameRule 游戏规则版本
+     * @throws IllegalArgumentException 尺寸或雷数不可用, 见 checkSize
+     */
+    public HugeSweeper(int row, int col, int mineCount, boolean cheat, int gameRule) {
+        super(row, col, requireValidSize(row, col, mineCount, gameRule), cheat, gameRule);
+    }
+
+    /**
+     * 从二进制棋局文件读取棋局, 将会默认开启作弊
+     * 只有玩家视图需要整块解码读入, 地雷视图留在映射的文件里按需访问.
+     * @param file 文件
+     * @throws IOException 读文件可能出问题
+     */
+    public HugeSweeper(File file) throws IOException {
+        BoardFile board = BoardFile.open(file);
+        this.initGame(board.getRow(), board.getCol(), board.getMineCount(), true, null, board.getGameRule());
+        if (board.hasMines()) this.mappedMines = board;
+        this.restorePlayerBoard(board);
+    }
+
+    /**
+     * 检查超大棋盘的尺寸与雷数是否可用: 下标视图 (外围多一圈哨兵) 的格子数不能超出 int 的范围,
+     * 雷数要小于格子数减去第一步的安全区 (WinXP 规则 1 格, Win7 规则 9 格)
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     * @param gameRule 游戏规则版本
+     * @return 不可用的原因, 可用则为 null
+     */
+    public static String checkSize(int row, int col, int mineCount, int gameRule) {
+        if (row <= 0 || col <= 0) return "行列数必须为正数";
+        if ((long) (row + 2) * (col + 2) > Integer.MAX_VALUE) return "棋盘太大, 格子数超出上限: " + row + "x" + col;
+        final long safe = gameRule == GAME_RULE_WIN_7 ? 9 : 1;
+        if (mineCount < 0 || mineCount >= (long) row * col - safe) {
+            return "雷数必须在 0 到 " + ((long) row * col - safe - 1) + " 之间: " + mineCount;
+        }
+        return null;
+    }
+
+    private static int requireValidSize(int row, int col, int mineCount, int gameRule) {
+        final String reason = checkSize(row, col, mineCount, gameRule);
+        if (reason != null) throw new IllegalArgumentException(reason);
+        return mineCount;
+    }
+
+    /**
+     * 分叉用的构造函数, 见 fork()
+     * @param parent 被分叉的游戏
+     */
+    protected HugeSweeper(HugeSweeper parent) {
+        super(parent);
+        this.seed = parent.seed;
+        this.tileRows = parent.tileRows;
+        this.tileCols = parent.tileCols;
+        this.capacityPrefix = parent.capacityPrefix;
+        this.tiles = parent.tiles; // 每块的内容只由种子决定, 谁先访问谁生成, 父子共用
+        this.safeX0 = parent.safeX0;
+        this.safeX1 = parent.safeX1;
+        this.safeY0 = parent.safeY0;
+        this.safeY1 = parent.safeY1;
+        this.mappedMines = parent.mappedMines;
+    }
+
+    @Override
+    public HugeSweeper fork() {
+        return new HugeSweeper(this);
+    }
+
+    /**
+     * 只记下种子与安全区, 算好各块的容量. 真正的雷要等到访问某块时才生成
+     * @param x 第一步左击的 x 坐标
+     * @param y 第一步左击的 y 坐标
+     */
+    @Override
+    protected void initRandomMineBoard(int x, int y) {
+        if (this.random == null) this.random = new SplittableRandom();
+        this.seed = this.random.nextLong();
+        final int radius = this.gameRule == GAME_RULE_WIN_7 ? 2 : 1;
+        this.safeX0 = Math.max(x - radius + 1, 0);
+        this.safeX1 = Math.min(x + radius - 1, this.row - 1);
+        this.safeY0 = Math.max(y - radius + 1, 0);
+        this.safeY1 = Math.min(y + radius - 1, this.col - 1);
+        this.tileRows = (this.row + TILE_SIZE - 1) >>> TILE_SHIFT;
+        this.tileCols = (this.col + TILE_SIZE - 1) >>> TILE_SHIFT;
+        final int tileCount = this.tileRows * this.tileCols;
+        this.capacityPrefix = new long[tileCount + 1];
+        for (int t = 0; t < tileCount; ++t) this.capacityPrefix[t + 1] = this.capacityPrefix[t] + this.tileCapacity(t);
+        this.tiles = new long[tileCount][];
+    }
+
+    @Override
+    protected boolean hasMineBoard() { return this.tiles != null || this.mappedMines != null; }
+
+    @Override
+    protected boolean isMine(int index) {
+        final int x = this.getX(index), y = this.getY(index);
+        if (x < 0 || x >= this.row || y < 0 || y >= this.col) return false; // 哨兵格子
+        if (this.mappedMines != null) return this.mappedMines.isMine(x, y);
+        final long[] tile = this.tile((x >>> TILE_SHIFT) * this.tileCols + (y >>> TILE_SHIFT));
+        return (tile[x & (TILE_SIZE - 1)] & (1L << (y & (TILE_SIZE - 1)))) != 0;
+    }
+
+    @Override
+    protected int getNumber(int index) {
+        int n = 0;
+        for (int d : this.geometry.offsets) {
+            if (this.isMine(index + d)) ++n;
+        }
+        return n;
+    }
+
+    /**
+     * 获取某块的雷位图, 第一次访问时生成
+     * @param t 块的编号
+     * @return 该块的雷位图
+     */
+    private long[] tile(int t) {
+        long[] tile = this.tiles[t];
+        if (tile != null) return tile;
+        tile = new long[TILE_SIZE];
+        final int x0 = t / this.tileCols << TILE_SHIFT, y0 = t % this.tileCols << TILE_SHIFT;
+        final int h = Math.min(TILE_SIZE, this.row - x0), w = Math.min(TILE_SIZE, this.col - y0);
+        final int capacity = (int) (this.capacityPrefix[t + 1] - this.capacityPrefix[t]);
+        final int mine = this.tileMineCount(t);
+        final SplittableRandom rng = new SplittableRandom(this.seed ^ (t + 1) * 0xC2B2AE3D27D4EB4FL);
+        if (mine << 1 <= capacity) {
+            // 与 MineSweeper.initRandomMineBoard 相同: 雷不超过一半时拒绝采样, 否则部分 Fisher-Yates 洗牌
+            for (int placed = 0; placed < mine; ) {
+                int c = rng.nextInt(h * w), i = c / w, j = c % w;
+                if (this.isSafe(x0 + i, y0 + j) || (tile[i] & (1L << j)) != 0) continue;
+                tile[i] |= 1L << j;
+                ++placed;
+            }
+        }
+        else {
+            int[] cells = new int[capacity];
+            int n = 0;
+            for (int i = 0; i < h; ++i) for (int j = 0; j < w; ++j) {
+                if (!this.isSafe(x0 + i, y0 + j)) cells[n++] = i << TILE_SHIFT | j;
+            }
+            for (int k = 0; k < mine; ++k) {
+                int r = k + rng.nextInt(capacity - k);
+                int tmp = cells[r]; cells[r] = cells[k]; cells[k] = tmp;
+                tile[cells[k] >>> TILE_SHIFT] |= 1L << cells[k];
+            }
+        }
+        return this.tiles[t] = tile;
+    }
+
+    /**
+     * 计算某块分到的雷数. 从覆盖全部块的区间 [0, tileCount) 开始二分, 每层按超几何分布把区间的雷分给左右两半,
+     * 一直走到只剩这一块. 每个区间的随机数只由种子与区间本身决定, 所以各块分到的雷数之和恰为总雷数.
+     * @param t 块的编号
+     * @return 该块的雷数
+     */
+    private int tileMineCount(int t) {
+        final long[] prefix = this.capacityPrefix;
+        int lo = 0, hi = this.tiles.length;
+        long mine = Math.min(this.mineCount, prefix[hi]);
+        while (hi - lo > 1) {
+            final int mid = (lo + hi) >>> 1;
+            final SplittableRandom rng = new SplittableRandom(this.seed ^ ((long) lo << 32 | hi) * 0x9E3779B97F4A7C15L);
+            final long left = splitMines(mine, prefix[mid] - prefix[lo], prefix[hi] - prefix[mid], rng);
+            if (t < mid) {
+                hi = mid;
+                mine = left;
+            }
+            else {
+                lo = mid;
+                mine -= left;
+            }
+        }
+        return (int) mine;
+    }
+
+    /**
+     * 在 leftCells + rightCells 个格子中随机埋 mine 个雷, 求落在左边的雷数 (即超几何分布抽样)
+     * 需要抽取的次数少时逐个精确抽样; 多时 (只会出现在很大的区间上) 用正态近似, 结果截断到合法范围, 保证总数不变.
+     * @param mine 雷数
+     * @param leftCells 左边的格子数
+     * @param rightCells 右边的格子数
+     * @param rng 随机数流
+     * @return 左边的雷数
+     */
+    private static long splitMines(long mine, long leftCells, long rightCells, SplittableRandom rng) {
+        final long n = leftCells + rightCells;
+        final long lower = Math.max(0, mine - rightCells), upper = Math.min(mine, leftCells);
+        if (lower >= upper) return lower;
+        final long draws = Math.min(mine, n - mine); // 雷多于一半时改为抽非雷的格子, 抽取次数更少
+        long left;
+        if (draws <= EXACT_SPLIT_LIMIT) {
+            long leftRemain = leftCells, remain = n;
+            left = 0;
+            for (long i = 0; i < draws; ++i, --remain) {
+                if (rng.nextLong(remain) < leftRemain) {
+                    ++left;
+                    --leftRemain;
+                }
+            }
+            if (draws != mine) left = leftCells - left;
+        }
+        else {
+            final double p = (double) leftCells / n;
+            final double sd = Math.sqrt(mine * p * (1 - p) * (n - mine) / (n - 1));
+            final double gaussian = Math.sqrt(-2 * Math.log(1 - rng.nextDouble())) * Math.cos(2 * Math.PI * rng.nextDouble());
+            left = Math.round(mine * p + sd * gaussian);
+        }
+        return Math.max(lower, Math.min(upper, left));
+    }
+
+    /**
+     * 计算某块中可以埋雷的格子数 (块的格子数减去其与安全区的交集)
+     * @param t 块的编号
+     * @return 可以埋雷的格子数
+     */
+    private int tileCapacity(int t) {
+        final int x0 = t / this.tileCols << TILE_SHIFT, y0 = t % this.tileCols << TILE_SHIFT;
+        final int x1 = Math.min(x0 + TILE_SIZE, this.row) - 1, y1 = Math.min(y0 + TILE_SIZE, this.col) - 1;
+        final int h = Math.min(x1, this.safeX1) - Math.max(x0, this.safeX0) + 1;
+        final int w = Math.min(y1, this.safeY1) - Math.max(y0, this.safeY0) + 1;
+        return (x1 - x0 + 1) * (y1 - y0 + 1) - (h > 0 && w > 0 ? h * w : 0);
+    }
+
+    private boolean isSafe(int x, int y) {
+        return x >= this.safeX0 && x <= this.safeX1 && y >= this.safeY0 && y <= this.safeY1;
+    }
+}
@@ -0,0 +1,607 @@
+package xjf;
+
+import xjf.util.IntList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * 命令行入口 (test、replay、bench、generate 等), 只依赖 core, 无界面的环境也能直接运行.
+ * 图形界面的入口是 gui 模块的 Gui.main, 它处理 gui 命令, 其余命令转交这里.
+ */
+public class Main {
+    public static final String VERSION = "v1.2.1-release";
+
+    // 一些在 testAI 及其创建的线程中用到的变量
+    private static long time;
+    private static int round;
+    private static long gameSeed;
+    private static MineSweeper game;
+
+    // 创建操作 winmine.exe 的游戏 (rule 为 XP 时用), 参数为是否先重开一局. winxp 模块不在 core 的依赖里, 由 Gui.main 设置
+    static Function<Boolean, MineSweeper> realWinXpGameFactory;
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("gui")) System.out.println("图形界面在 gui 模块中, 请运行 Minesweeper.jar.");
+        else if (args.length == 0) main(new String[] { "help" });
+        else if (args[0].equals("replay")) replay(args);
+        else if (args[0].equals("bench")) bench(args);
+        else if (args[0].equals("generate")) generate(args);
+        else if (args[0].contains("t")) testAI(args);
+        else if (args[0].contains("c")) cli();
+        else if (args[0].contains("v")) {
+            System.out.println("Java 扫雷 | 作者: 蟹恼板 | 版本: " + VERSION);
+        }
+        else if (args[0].contains("h")) {
+            System.out.println("参数    \t描述");
+            System.out.println("------- \t-------");
+            System.out.println("(无)    \tGUI 入口 (需要 gui 模块, 即 Minesweeper.jar)");
+            System.out.println("gui     \tGUI 入口 (同上)");
+            System.out.println("cli     \tCLI 入口");
+            System.out.println("test    \t测试 AI 胜率 (详情输入 test --help)");
+            System.out.println("replay  \t重放 test 中的某一局 (详情输入 replay --help)");
+            System.out.println("bench   \t用语料文件中的棋局测试 AI (详情输入 bench --help)");
+            System.out.println("generate\t批量生成无猜棋局到语料文件 (详情输入 generate --help)");
+            System.out.println("version \t查看版本");
+            System.out.println("help    \t查看帮助");
+        }
+        else System.out.println("参数错误. 输入 help 查看更多信息.");
+    }
+
+    /**
+     * CLI 扫雷入口
+     * 没仔细做, 算是个对 MineSweeper 提供的 API 的简单应用展示
+     */
+    private static void cli() {
+        Scanner sc = new Scanner(System.in);
+        System.out.print("输入 行 列 雷数: ");
+        MineSweeper game = new MineSweeper(sc.nextInt(), sc.nextInt(), sc.nextInt());
+        sc.nextLine();
+        while (true) {
+            System.out.print("输入操作: ");
+            String[] opList = sc.nextLine().split(" ");
+            char op = (opList.length > 0 && opList[0].length() == 1) ? opList[0].charAt(0) : 'h';
+            int x = -1, y = -1;
+            if (op == 'l' || op == 'r' || op == 'c') {
+                if (opList.length == 3) {
+                    x = Integer.parseInt(opList[1]);
+                    y = Integer.parseInt(opList[2]);
+                }
+                else op = 'h';
+            }
+            int success;
+            switch (op) {
+                case 'l': success = game.dig(x, y); break;
+                case 'r': success = game.mark(x, y); break;
+                case 'c': success = game.check(x, y); break;
+                case 'a': AutoSweeper.sweepToEnd(game); success = game.getGameState(); break;
+                default:
+                    System.out.println("l <x> <y>    模拟左键 (揭开)");
+                    System.out.println("r <x> <y>    模拟右键 (标旗, 标问号)");
+                    System.out.println("c <x> <y>    模拟左右同时按 (检测周围格子)");
+                    System.out.println("a            使用 AI 扫完全部");
+                    continue;
+            }
+            game.printPlayerBoardToConsole();
+            if (success != MineSweeper.PROCESS) {
+                System.out.println(success == MineSweeper.WIN ? "胜利!" : "失败!");
+                break;
+            }
+        }
+    }
+
+    /**
+     * AI 测试
+     * 反复运行若干局, 计算胜率
+     * @param args 执行参数
+     */
+    private static void testAI(String[] args) {
+        // 从命令行获取参数
+        int times = 10000, difficulty = MineSweeper.DIFFICULTY_EXPERT, gameRule = MineSweeper.GAME_RULE_WIN_XP;
+        long seed = new SplittableRandom().nextLong();
+        int[] huge = null;
+        File corpusFile = null;
+        for (int i = 1; i < args.length; i += 2) {
+            String nextArg = i + 1 < args.length ? args[i + 1] : "";
+            boolean error = false;
+            switch (args[i]) {
+                case "-t": case "--times":
+                    try { times = Integer.parseInt(nextArg); }
+                    catch (Exception ignored) { error = true; }
+                    break;
+                case "-s": case "--seed":
+                    try { seed = Long.parseLong(nextArg); }
+                    catch (Exception ignored) { error = true; }
+                    break;
+                case "-r": case "--rule":
+                    gameRule = parseGameRule(nextArg);
+                    if (gameRule == 0) error = true;
+                    break;
+                case "-d": case "--difficulty":
+                    difficulty = parseDifficulty(nextArg);
+                    if (difficulty == 0) error = true;
+                    break;
+                case "-g": case "--huge":
+                    huge = parseBoardSize(nextArg);
+                    if (huge == null) error = true;
+                    break;
+                case "-c": case "--corpus":
+                    if (nextArg.isEmpty()) error = true;
+                    else corpusFile = new File(nextArg);
+                    break;
+                case "-h": case "--help":
+                    System.out.println("--times        -t  测试的局数, 默认 10000 次.");
+                    System.out.println("--rule         -r  测试的游戏规则, xp 或 7 或 XP, 默认 xp.");
+                    System.out.println("                   xp 为模拟 WinXP 扫雷的规则, 运行速度快;");
+                    System.out.println("                   XP 直接截屏并鼠标操作 winmine.exe, 运行速度慢;");
+                    System.out.println("                   7  为模拟 Win7 扫雷的规则, 运行速度快.");
+                    System.out.println("--difficulty   -d  测试的游戏难度, 初级 (beg, 1), 中级 (int, 2), 高级 (exp, 3).");
+                    System.out.println("                   当 rule 为 XP 时该参数不起作用.");
+                    System.out.println("--seed         -s  随机种子, 指定后每次测试的雷区序列相同. 默认随机.");
+                    System.out.println("                   每局都有自己的种子, 可用 replay 单独重放 (输出中会给出耗时最长的一局).");
+                    System.out.println("--huge         -g  超大棋盘, 格式为 行x列x雷数 (如 1000x1000x200000), 雷区分块按需生成.");
+                    System.out.println("                   指定后 difficulty 不起作用, rule 不能为 XP.");
+                    System.out.println("--corpus       -c  把每局第一步之后的局面连同种子、胜负写入语料文件, 供 bench 使用.");
+                    System.out.println("                   rule 不能为 XP.");
+                    return;
+                default: error = true;
+            }
+            if (error) {
+                System.out.println("参数格式错误, 键入 test --help 以获得帮助.");
+                return;
+            }
+        }
+        if (huge != null && !checkBoardSize(huge, gameRule)) return;
+        if (gameRule == MineSweeper.GAME_RULE_REAL_WIN_XP && realWinXpGameFactory == null) {
+            System.out.println("rule 为 XP 时需要 winxp 模块, 请通过 Minesweeper.jar 运行.");
+            return;
+        }
+        BoardCorpus.Writer corpus = null;
+        if (corpusFile != null && gameRule != MineSweeper.GAME_RULE_REAL_WIN_XP) {
+            try { corpus = new BoardCorpus.Writer(corpusFile); }
+            catch (IOException e) {
+                System.out.println("无法创建语料文件: " + e.getMessage());
+                return;
+            }
+        }
+        if (gameRule == MineSweeper.GAME_RULE_REAL_WIN_XP) {
+            MineSweeper tmp = realWinXpGameFactory.apply(false);
+            if (tmp.getRow() == 16 && tmp.getCol() == 30 && tmp.getMineCount() == 99) {
+                difficulty = MineSweeper.DIFFICULTY_EXPERT;
+            }
+            else if (tmp.getRow() == 16 && tmp.getCol() == 16 && tmp.getMineCount() == 40) {
+                difficulty = MineSweeper.DIFFICULTY_INTERMEDIATE;
+            }
+            else if (tmp.getRow() == 9 && tmp.getCol() == 9 && tmp.getMineCount() == 10) {
+                difficulty = MineSweeper.DIFFICULTY_BEGINNER;
+            }
+            else difficulty = MineSweeper.DIFFICULTY_CUSTOM;
+        }
+        else if (huge != null) difficulty = MineSweeper.DIFFICULTY_CUSTOM;
+        final String boardArg = boardArg(difficulty, huge);
+
+        // 输出参数
+        System.out.printf("执行次数: %d   游戏规则: %s   难度: %s", times,
+                gameRule == MineSweeper.GAME_RULE_WIN_XP ? "WinXP" : (
+                    gameRule == MineSweeper.GAME_RULE_WIN_7 ? "Win7" : "WinXP (winmine.exe)"
+                ),
+                difficulty == MineSweeper.DIFFICULTY_CUSTOM ? (huge == null ? "??" : huge[0] + "x" + huge[1] + "x" + huge[2]) : (
+                    difficulty == MineSweeper.DIFFICULTY_BEGINNER ? "初级" : (
+                        difficulty == MineSweeper.DIFFICULTY_INTERMEDIATE ? "中级" : "高级"
+                    )
+                )
+        );
+        if (gameRule != MineSweeper.GAME_RULE_REAL_WIN_XP) System.out.print("   种子: " + seed);
+        System.out.println();
+
+        //开始运算
+        int winCnt = 0;
+        int[] exploreRateView = new int[11];
+        IntList difficultyRecords = new IntList(Math.min(times, 1 << 16)); // 每局: 3BV << 1 | 胜负, 最后按 3BV 分组统计胜率
+        // 如果遇到连通分量特别长导致运算时间很久, 每隔2秒输出一次
+        Thread th = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(1000);
+                    if (game == null) break;
+                    long diff = System.currentTimeMillis() - time;
+                    if (diff > 6000) {
+                        System.out.println();
+                        System.out.println("第 " + round + " 局耗时超预期, 可能是因为连通分量太长. 当前步数: "
+                                + game.getStep() + ". 当前连通分量: ");
+                        if (game.getGameRule() != MineSweeper.GAME_RULE_REAL_WIN_XP) {
+                            System.out.println("单独重放该局: " + replayCommand(gameSeed, game.getGameRule(), boardArg));
+                        }
+                        AutoSweeper.printConnectedComponent(game, AutoSweeper.findAllConnectedComponents(game).getValue());
+                        time = System.currentTimeMillis();
+                    }
+                }
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        });
+        th.start();
+        long startTime = System.currentTimeMillis();
+        long printTime = startTime;
+        long winTime = 0;
+        // 每局的种子由主种子依次生成, 于是 (种子, 规则, 难度) 就能唯一确定一局, 可以用 replay 单独重放
+        SplittableRandom random = new SplittableRandom(seed);
+        int slowestRound = 0;
+        long slowestTime = -1, slowestSeed = 0;
+        for (round = 1; round <= times; ++round) {
+            long roundStartTime = time = System.currentTimeMillis();
+            try {
+                if (gameRule == MineSweeper.GAME_RULE_REAL_WIN_XP) {
+                    game = realWinXpGameFactory.apply(true);
+                }
+                else {
+                    gameSeed = random.nextLong();
+                    // 要写语料时开作弊, 以便玩完后从操作日志中取回第一步之后的局面
+                    final boolean cheat = corpus != null;
+                    game = huge == null ? new MineSweeper(difficulty, cheat, gameRule)
+                            : new HugeSweeper(huge[0], huge[1], huge[2], cheat, gameRule);
+                    game.setSeed(gameSeed);
+                }
+//                game = new MineSweeper(badMineBoardExample);
+                AutoSweeper.sweepToEnd(game);
+                if (corpus != null) {
+                    final int result = game.getGameState();
+                    game.jumpTo(Math.min(1, game.getHistorySize()));
+                    corpus.write(game, gameSeed, result);
+                    game.jumpTo(game.getHistorySize());
+                }
+            }
+            catch (Exception e) {
+                e.printStackTrace();
+                times = round;
+                break;
+            }
+            long roundEndTime = System.currentTimeMillis();
+            if (roundEndTime - roundStartTime > slowestTime) {
+                slowestRound = round;
+                slowestTime = roundEndTime - roundStartTime;
+                slowestSeed = gameSeed;
+            }
+            boolean win = game.getGameState() == MineSweeper.WIN;
+            int exploreRate = 100;
+            if (win) {
+                ++winCnt;
+                winTime += roundEndTime - roundStartTime;
+            }
+            else {
+                // 计算一下棋盘被探索的程度
+                int explored = 0;
+                for (byte v : game.getPackedPlayerBoard()) {
+                    if (v < 9 || v == MineSweeper.FLAG) ++explored;
+                }
+                exploreRate = 100 * explored / (game.getRow() * game.getCol());
+            }
+            ++exploreRateView[exploreRate / 10];
+            final int bbbv = game.get3BV();
+            if (bbbv >= 0) difficultyRecords.add(bbbv << 1 | (win ? 1 : 0));
+            if (roundEndTime - printTime > 120) {
+                printTime = roundEndTime;
+                System.out.printf(
+                        "\r第 %d 局: %s   探索程度: %s   当前胜率: %.4f%%   平均胜局耗时: %d毫秒   平均每局耗时: %d毫秒    ",
+                        round, (win ? "胜" : "负"),
+                        (exploreRate < 10 ? "  " : (exploreRate < 100 ? " " : "")) + exploreRate + "%",
+                        (double) winCnt / (double) round * 100, winTime / Math.max(winCnt, 1),
+                        (roundEndTime - startTime) / round);
+            }
+        }
+        game = null;
+        long totalTime = System.currentTimeMillis() - startTime;
+        if (corpus != null) {
+            try { corpus.close(); }
+            catch (IOException e) { e.printStackTrace(); }
+        }
+        for (int i = 0; i < exploreRateView.length; ++i) {
+            exploreRateView[i] = (int)Math.ceil(10.0 * exploreRateView[i] / times);
+        }
+        System.out.print("\r                                                            \r");
+        System.out.printf("运行局数: %d   胜率: %.2f%%   运行总耗时: %d秒   平均胜局耗时: %d毫秒   平均每局耗时: %d毫秒        ",
+                times, (double)winCnt / (double)times * 100, totalTime / 1000, winTime / Math.max(winCnt, 1), totalTime / times);
+        System.out.println();
+        System.out.println("探索程度统计: ");
+        System.out.println("A 占比");
+        for (int i = 1; i < 10; ++i) {
+            System.out.print("|");
+            for (int v :exploreRateView) System.out.print(v >= 10 - i ? "  M " : "    ");
+            System.out.println();
+        }
+        System.out.println("+---------------------------------------------> 探索程度");
+        System.out.println("   0% 10% 20% 30% 40% 50% 60% 70% 80% 90% 100%");
+        printWinRateBy3BV(difficultyRecords);
+        if (gameRule != MineSweeper.GAME_RULE_REAL_WIN_XP && slowestRound > 0) {
+            System.out.println("耗时最长: 第 " + slowestRound + " 局, " + slowestTime + "毫秒. 单独重放: "
+                    + replayCommand(slowestSeed, gameRule, boardArg));
+        }
+    }
+
+    /**
+     * 按雷区难度 (3BV) 分组输出胜率. 各局按 3BV 从小到大排好后均分为 5 组, 每组给出 3BV 的范围与胜率,
+     * 这样不同雷区的难易不同造成的胜率波动就能看出来了.
+     * @param records 每局一个: 3BV << 1 | 胜负
+     */
+    private static void printWinRateBy3BV(IntList records) {
+        final int groups = 5, n = records.size();
+        if (n < groups) return;
+        int[] sorted = records.toArray();
+        Arrays.sort(sorted);
+        System.out.println("按雷区难度 (3BV) 分组的胜率: ");
+        System.out.println("3BV 范围      局数      胜率");
+        for (int g = 0; g < groups; ++g) {
+            final int from = n * g / groups, to = n * (g + 1) / groups;
+            int win = 0;
+            for (int i = from; i < to; ++i) win += sorted[i] & 1;
+            System.out.printf("%-12s  %-8d  %.2f%%%n", (sorted[from] >> 1) + " ~ " + (sorted[to - 1] >> 1),
+                    to - from, 100.0 * win / (to - from));
+        }
+    }
+
+    /**
+     * 重放 testAI 中的一局
+     * 由 (种子, 规则, 难度) 重新生成同样的雷区, 再让 AI 按同样的决策玩一遍, 便于单独分析 (或 profile) 某一局.
+     * @param args 执行参数
+     */
+    private static void replay(String[] args) {
+        // 从命令行获取参数
+        int difficulty = MineSweeper.DIFFICULTY_EXPERT, gameRule = MineSweeper.GAME_RULE_WIN_XP;
+        long seed = 0;
+        int[] huge = null;
+        boolean hasSeed = false, verbose = false;
+        for (int i = 1; i < args.length; i += 2) {
+            String nextArg = i + 1 < args.length ? args[i + 1] : "";
+            boolean error = false;
+            switch (args[i]) {
+                case "-s": case "--seed":
+                    try { seed = Long.parseLong(nextArg); hasSeed = true; }
+                    catch (Exception ignored) { error = true; }
+                    break;
+                case "-r": case "--rule":
+                    gameRule = parseGameRule(nextArg);
+                    if (gameRule == 0 || gameRule == MineSweeper.GAME_RULE_REAL_WIN_XP) error = true;
+                    break;
+                case "-d": case "--difficulty":
+                    difficulty = parseDifficulty(nextArg);
+                    if (difficulty == 0) error = true;
+                    break;
+                case "-g": case "--huge":
+                    huge = parseBoardSize(nextArg);
+                    if (huge == null) error = true;
+                    break;
+                case "-v": case "--verbose":
+                    verbose = true;
+                    --i;
+                    break;
+                case "-h": case "--help":
+                    System.out.println("--seed         -s  该局的种子 (必填), 见 test 的输出.");
+                    System.out.println("--rule         -r  游戏规则, xp 或 7, 默认 xp.");
+                    System.out.println("--difficulty   -d  游戏难度, 初级 (beg, 1), 中级 (int, 2), 高级 (exp, 3).");
+                    System.out.println("--huge         -g  超大棋盘, 格式为 行x列x雷数, 与 test 的同名参数一致.");
+                    System.out.println("--verbose      -v  逐步输出 AI 的每个操作后的局面.");
+                    return;
+                default: error = true;
+            }
+            if (error) {
+                System.out.println("参数格式错误, 键入 replay --help 以获得帮助.");
+                return;
+            }
+        }
+        if (!hasSeed) {
+            System.out.println("缺少种子, 键入 replay --help 以获得帮助.");
+            return;
+        }
+        if (huge != null && !checkBoardSize(huge, gameRule)) return;
+
+        // 开作弊以记录操作日志, 玩完后按日志逐步回放
+        MineSweeper game = huge == null ? new MineSweeper(difficulty, true, gameRule)
+                : new HugeSweeper(huge[0], huge[1], huge[2], true, gameRule);
+        game.setSeed(seed);
+        long startTime = System.currentTimeMillis();
+        AutoSweeper.sweepToEnd(game);
+        long totalTime = System.currentTimeMillis() - startTime;
+        if (verbose) {
+            game.jumpTo(0);
+            for (int i = 1; i <= game.getHistorySize(); ++i) {
+                game.redo();
+                System.out.println("第 " + i + " 个操作后 (步数 " + game.getStep() + "): ");
+                game.printPlayerBoardToConsole();
+            }
+        }
+        else game.printPlayerBoardToConsole();
+        System.out.printf("结果: %s   步数: %d   耗时: %d毫秒",
+                game.getGameState() == MineSweeper.WIN ? "胜" : "负", game.getStep(), totalTime);
+        System.out.println();
+    }
+
+    /**
+     * 语料测试
+     * 依次读入语料文件中的每个棋局, 让 AI 从该局面玩到底, 统计胜率、耗时, 并与语料中记录的结果比对 (用于回归).
+     * @param args 执行参数
+     */
+    private static void bench(String[] args) {
+        if (args.length < 2 || args[1].equals("-h") || args[1].equals("--help")) {
+            System.out.println("bench <语料文件>    语料文件由 test --corpus 生成.");
+            return;
+        }
+        int count = 0, winCnt = 0, mismatchCnt = 0;
+        long startTime = System.currentTimeMillis();
+        try (BoardCorpus.Reader reader = new BoardCorpus.Reader(new File(args[1]))) {
+            for (BoardCorpus.Entry entry = reader.next(); entry != null; entry = reader.next()) {
+                MineSweeper game = entry.newGame();
+                AutoSweeper.sweepToEnd(game);
+                ++count;
+                if (game.getGameState() == MineSweeper.WIN) ++winCnt;
+                if (entry.getExpectedResult() != MineSweeper.PROCESS && entry.getExpectedResult() != game.getGameState()) {
+                    if (++mismatchCnt <= 10) {
+                        System.out.println("第 " + count + " 局结果与语料不符, 种子: " + entry.getSeed());
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            System.out.println("读取语料文件失败: " + e.getMessage());
+            return;
+        }
+        long totalTime = System.currentTimeMillis() - startTime;
+        System.out.printf("运行局数: %d   胜率: %.2f%%   结果不符: %d   运行总耗时: %d秒   平均每局耗时: %d毫秒",
+                count, 100.0 * winCnt / Math.max(count, 1), mismatchCnt, totalTime / 1000, totalTime / Math.max(count, 1));
+        System.out.println();
+    }
+
+    /**
+     * 批量生成无猜棋局 (见 NoGuessGenerator), 写入语料文件. 每个棋局都是点过第一步之后的局面, 预期结果为胜.
+     * @param args 执行参数
+     */
+    private static void generate(String[] args) {
+        int times = 1000, difficulty = MineSweeper.DIFFICULTY_EXPERT, gameRule = MineSweeper.GAME_RULE_WIN_XP;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = new SplittableRandom().nextLong();
+        File outFile = null;
+        for (int i = 1; i < args.length; i += 2) {
+            String nextArg = i + 1 < args.length ? args[i + 1] : "";
+            boolean error = false;
+            switch (args[i]) {
+                case "-t": case "--times":
+                    try { times = Integer.parseInt(nextArg); }
+                    catch (Exception ignored) { error = true; }
+                    break;
+                case "-j": case "--threads":
+                    try { threads = Integer.parseInt(nextArg); }
+                    catch (Exception ignored) { error = true; }
+                    if (threads <= 0) error = true;
+                    break;
+                case "-s": case "--seed":
+                    try { seed = Long.parseLong(nextArg); }
+                    catch (Exception ignored) { error = true; }
+                    break;
+                case "-r": case "--rule":
+                    gameRule = parseGameRule(nextArg);
+                    if (gameRule == 0 || gameRule == MineSweeper.GAME_RULE_REAL_WIN_XP) error = true;
+                    break;
+                case "-d": case "--difficulty":
+                    difficulty = parseDifficulty(nextArg);
+                    if (difficulty == 0) error = true;
+                    break;
+                case "-o": case "--output":
+                    if (nextArg.isEmpty()) error = true;
+                    else outFile = new File(nextArg);
+                    break;
+                case "-h": case "--help":
+                    System.out.println("--output       -o  输出的语料文件 (必填).");
+                    System.out.println("--times        -t  生成的局数, 默认 1000.");
+                    System.out.println("--rule         -r  游戏规则, xp 或 7, 默认 xp.");
+                    System.out.println("--difficulty   -d  游戏难度, 初级 (beg, 1), 中级 (int, 2), 高级 (exp, 3).");
+                    System.out.println("--seed         -s  主种子, 默认随机. 同一主种子生成的语料相同, 与线程数无关.");
+                    System.out.println("--threads      -j  线程数, 默认为 CPU 核数.");
+                    return;
+                default: error = true;
+            }
+            if (error) {
+                System.out.println("参数格式错误, 键入 generate --help 以获得帮助.");
+                return;
+            }
+        }
+        if (outFile == null) {
+            System.out.println("参数格式错误, 键入 generate --help 以获得帮助.");
+            return;
+        }
+        MineSweeper size = new MineSweeper(difficulty, false, gameRule);
+        int[] first = NoGuessGenerator.defaultFirstStep(gameRule);
+        NoGuessGenerator generator = new NoGuessGenerator(size.getRow(), size.getCol(), size.getMineCount(),
+                gameRule, first[0], first[1]);
+        long startTime = System.currentTimeMillis();
+        try (BoardCorpus.Writer writer = new BoardCorpus.Writer(outFile)) {
+            generator.generate(times, seed, threads, (gameSeed, game) -> writer.write(game, gameSeed, MineSweeper.WIN));
+        }
+        catch (Exception e) {
+            System.out.println("生成失败: " + e);
+            return;
+        }
+        long totalTime = System.currentTimeMillis() - startTime;
+        System.out.printf("生成局数: %d   线程数: %d   运行总耗时: %.1f秒   每秒生成: %.1f局   种子: %d",
+                times, threads, totalTime / 1000.0, 1000.0 * times / Math.max(totalTime, 1), seed);
+        System.out.println();
+    }
+
+    /**
+     * 解析命令行中的游戏规则
+     * @param arg 参数, xp 或 7 或 XP
+     * @return 游戏规则, 格式错误时返回 0
+     */
+    private static int parseGameRule(String arg) {
+        if (arg.contains("7")) return MineSweeper.GAME_RULE_WIN_7;
+        if (arg.contains("xp")) return MineSweeper.GAME_RULE_WIN_XP;
+        if (arg.contains("XP")) return MineSweeper.GAME_RULE_REAL_WIN_XP;
+        return 0;
+    }
+
+    /**
+     * 解析命令行中的游戏难度
+     * @param arg 参数, 初级 (beg, 1), 中级 (int, 2), 高级 (exp, 3)
+     * @return 游戏难度, 格式错误时返回 0
+     */
+    private static int parseDifficulty(String arg) {
+        switch (arg) {
+            case "1": case "beg": case "beginner": return MineSweeper.DIFFICULTY_BEGINNER;
+            case "2": case "int": case "intermediate": return MineSweeper.DIFFICULTY_INTERMEDIATE;
+            case "3": case "exp": case "expert": return MineSweeper.DIFFICULTY_EXPERT;
+            default: return 0;
+        }
+    }
+
+    /**
+     * 解析命令行中的超大棋盘尺寸
+     * @param arg 参数, 行x列x雷数
+     * @return {行, 列, 雷数}, 格式错误时返回 null
+     */
+    private static int[] parseBoardSize(String arg) {
+        String[] parts = arg.split("x");
+        if (parts.length != 3) return null;
+        try {
+            int[] size = {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+            if (size[0] <= 0 || size[1] <= 0 || size[2] < 0) return null;
+            return size;
+        }
+        catch (NumberFormatException e) { return null; }
+    }
+
+    /**
+     * 检查命令行中的超大棋盘尺寸是否可用 (要等游戏规则也解析完, 所以不放在 parseBoardSize 里), 不可用时输出原因
+     * @param huge {行, 列, 雷数}
+     * @param gameRule 游戏规则
+     * @return 是否可用
+     */
+    private static boolean checkBoardSize(int[] huge, int gameRule) {
+        final String reason = HugeSweeper.checkSize(huge[0], huge[1], huge[2], gameRule);
+        if (reason != null) System.out.println("超大棋盘参数不可用: " + reason + ".");
+        return reason == null;
+    }
+
+    /**
+     * 生成命令行中描述棋盘的参数
+     * @param difficulty 游戏难度
+     * @param huge 超大棋盘尺寸, 没有则为 null
+     * @return 命令行参数
+     */
+    private static String boardArg(int difficulty, int[] huge) {
+        if (huge != null) return "-g " + huge[0] + "x" + huge[1] + "x" + huge[2];
+        return "-d " + (difficulty - MineSweeper.DIFFICULTY_BEGINNER + 1);
+    }
+
+    /**
+     * 生成重放某一局的命令行
+     * @param seed 该局的种子
+     * @param gameRule 游戏规则
+     * @param boardArg 描述棋盘的参数, 见 boardArg()
+     * @return 命令行参数
+     */
+    private static String replayCommand(long seed, int gameRule, String boardArg) {
+        return "replay -s " + seed + " -r " + (gameRule == MineSweeper.GAME_RULE_WIN_7 ? "7" : "xp") + " " + boardArg;
+    }
+}
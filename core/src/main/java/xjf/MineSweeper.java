@@ -0,0 +1,1561 @@
+package xjf;
+
+import xjf.util.IntList;
+import xjf.util.Point;
+
+import java.io.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实现整个扫雷游戏玩法.
+ */
+public class MineSweeper {
+    // 游戏状态
+    public static final int PROCESS = 0;
+    public static final int WIN     = 1;
+    public static final int LOSE    = -1;
+
+    // 三种预设难度
+    public static final int DIFFICULTY_BEGINNER     = 1001;
+    public static final int DIFFICULTY_INTERMEDIATE = 1002;
+    public static final int DIFFICULTY_EXPERT       = 1003;
+    public static final int DIFFICULTY_CUSTOM       = 1004;
+
+    // 玩家视图中每个格子的状态
+    public static final int UNCHECKED = 11;
+    public static final int FLAG      = 101;
+    public static final int QUESTION  = 102;
+    public static final int MINE      = 111;
+    public static final int NOT_MINE  = 112;
+    public static final int RED_MINE  = 113;
+    public static final int GRAY_MINE = 114;
+    public static final int BORDER    = 127;  // 棋盘外一圈的哨兵格子, 只会出现在下标视图中 (见 getPackedPlayerBoard)
+
+    // 三种游戏规则 (WinXP: 第一步必不为雷; Win7: 第一步周围九格均必不为雷; Unknown: 无规则, 预设雷区)
+    public static final int GAME_RULE_WIN_XP = 20011025;
+    public static final int GAME_RULE_WIN_7  = 20091022;
+    public static final int GAME_RULE_UNKNOWN  = 20200101;
+    public static final int GAME_RULE_REAL_WIN_XP = 20200728; // 直接操作 winmine.exe (winxp 模块的 WinXpSweeper)
+
+    // 用于文件读写时的标记
+    private static final char CHAR_NUM = 'n';
+    private static final char CHAR_MINE = '*';
+    private static final char CHAR_UNCHECKED = '.';
+    private static final char CHAR_QUESTION_ON_NUM = '?';
+    private static final char CHAR_QUESTION_ON_MINE = '!';
+    private static final char CHAR_FLAG = 'F';
+    private static final char CHAR_WRONG_FLAG = 'X';
+
+    // 游戏内部变量
+    protected int state;                                  // 游戏状态 (胜/负/进行中)
+    protected boolean cheat, showMine;                    // 作弊与否、是否显示地雷 (需要作弊)
+    protected int row, col, mineCount;                    // 行、列数、地雷总数
+    protected int gameRule;                               // 游戏规则 (WinXP、Win7)
+    protected Geometry geometry;                          // 棋盘尺寸相关的下标换算与邻居表 (同尺寸的棋局共用一个)
+    protected long[] mineBoard;                           // 地雷视图 (位图, 下标为 index 的位为 1 即该格是雷)
+    protected byte[] numberBoard;                         // 数字视图 (每格周围的雷数, 埋雷后一次性算好, 揭开格子时直接查表)
+    protected ZeroRegions zeroRegions;                    // 所有空白区域 (连成片的 0 及其外围的数字), 与数字视图一起算好
+    protected byte[] playerBoard;                         // 当前的玩家视图. 每格一字节
+    private boolean playerBoardShared;                    // 玩家视图是否与分叉出的游戏共用 (写时复制, 见 fork)
+    protected int coveredCellLeft;                        // 剩余的非雷未知格子 (UNCHECKED 且不是雷的格子)
+    protected int mineLeft;                               // 剩余的雷 (= 地雷总数 - 小旗数, 所以可为负数)
+    protected int step;                                   // 执行了多少步数 (揭开、标旗、标问号等操作均算一步)
+    protected static boolean allowQuestionMark = true;    // 右键时是否支持标记问号
+    protected SplittableRandom random;                    // 埋雷用的随机数流 (每局一个, 多线程模拟时互不争用)
+    protected boolean noGuess;                            // 是否生成无猜雷区 (见 NoGuessGenerator)
+    private IntList revealQueue;                          // dig 时 BFS 用的队列, 第一次用到时才分配, 之后反复使用
+
+    // 操作日志 (用于撤销/重做, 只在作弊时记录). 只记录每次操作改动了哪些格子, 而不是整个棋盘的副本
+    private static final int OP_INFO_SIZE = 9;           // 每个操作在 opInfo 中占的长度, 见 beginOperation()
+    // 以下几个 IntList 都在第一次用到时才分配, 这样 fork() 出的子游戏不用时几乎不占内存
+    private IntList journal;                              // 格子改动, 每条两个 int: 下标, (旧状态 << 8 | 新状态)
+    private IntList opInfo;                               // 每个操作: 日志起点, 操作前后的 state、step、coveredCellLeft、mineLeft
+    private int opCount, opCursor;                        // 日志中的操作总数 (含可重做的), 当前处在第几个操作之后
+    private int opDepth;                                  // 操作的嵌套深度 (如 check 里会调用 dig), 只有最外层算一个操作
+
+    // 格子变化的发布 (见 addChangeListener). 没有监听者时 setCell 不做任何额外的事
+    private volatile List<ChangeListener> changeListeners; // 监听者, 没有则为 null. 增删时整个换掉 (写时复制), 可在别的线程增删
+    private IntList changes;                              // 当前操作改动的格子, 格式同 journal (注册监听者时分配)
+    private int changeOpId;                               // 下一个发布的操作的编号
+
+    /**
+     * 仅供子类使用
+     */
+    protected MineSweeper() {}
+
+    /**
+     * 分叉用的构造函数, 见 fork(). 子类覆盖 fork() 时用它复制父类的部分
+     * @param parent 被分叉的游戏
+     */
+    protected MineSweeper(MineSweeper parent) {
+        this.state = parent.state;
+        this.cheat = parent.cheat;
+        this.showMine = parent.showMine;
+        this.row = parent.row;
+        this.col = parent.col;
+        this.mineCount = parent.mineCount;
+        this.gameRule = parent.gameRule;
+        this.geometry = parent.geometry;
+        this.mineBoard = parent.mineBoard;     // 地雷、数字视图埋好雷后就不再修改, 直接共用
+        this.numberBoard = parent.numberBoard;
+        this.zeroRegions = parent.zeroRegions;
+        this.playerBoard = parent.playerBoard;
+        this.playerBoardShared = parent.playerBoardShared = true;
+        this.coveredCellLeft = parent.coveredCellLeft;
+        this.mineLeft = parent.mineLeft;
+        this.step = parent.step;
+    }
+
+    /**
+     * 最简洁的构造函数, 从预设难度创建游戏. 默认作弊关闭、WinXP 版本规则
+     * @param difficulty 难度 (三个宏): DIFFICULTY_BEGINNER, DIFFICULTY_INTERMEDIATE, DIFFICULTY_EXPERT
+     */
+    public MineSweeper(int difficulty) {
+        this(difficulty, false, GAME_RULE_WIN_XP);
+    }
+
+    /**
+     * 构造函数, 从缺省难度创建游戏. 默认 WinXP 版本规则
+     * @param difficulty 难度 (三个宏): DIFFICULTY_BEGINNER, DIFFICULTY_INTERMEDIATE, DIFFICULTY_EXPERT
+     * @param cheat 作弊与否
+     */
+    public MineSweeper(int difficulty, boolean cheat) {
+        this(difficulty, cheat, GAME_RULE_WIN_XP);
+    }
+
+    /**
+     * 构造函数, 从缺省难度创建游戏. 默认作弊关闭
+     * @param difficulty 难度 (三个宏): DIFFICULTY_BEGINNER, DIFFICULTY_INTERMEDIATE, DIFFICULTY_EXPERT
+     * @param gameRule 游戏规则 (两个宏): GAME_RULE_WIN_XP、GAME_RULE_WIN_7
+     */
+    public MineSweeper(int difficulty, int gameRule) {
+        this(difficulty, false, gameRule);
+    }
+
+    /**
+     * 构造函数, 从缺省难度创建游戏
+     * @param difficulty 难度 (三个宏): DIFFICULTY_BEGINNER, DIFFICULTY_INTERMEDIATE, DIFFICULTY_EXPERT
+     * @param cheat 作弊与否
+     * @param gameRule 游戏规则 (两个宏): GAME_RULE_WIN_XP、GAME_RULE_WIN_7
+     */
+    public MineSweeper(int difficulty, boolean cheat, int gameRule) {
+        switch (difficulty) {
+            case DIFFICULTY_BEGINNER:
+                this.initGame(9, 9, 10, cheat, null, gameRule); break;
+            case DIFFICULTY_INTERMEDIATE:
+                this.initGame(16, 16, 40, cheat, null, gameRule); break;
+            case DIFFICULTY_EXPERT:
+                this.initGame(16, 30, 99, cheat, null, gameRule); break;
+        }
+    }
+
+    /**
+     * 构造函数, 指定宽、高、雷, 默认作弊关闭、WinXP 版本规则
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     */
+    public MineSweeper(int row, int col, int mineCount) {
+        this(row, col, mineCount, false, GAME_RULE_WIN_XP);
+    }
+
+    /**
+     * 构造函数, 默认关闭作弊
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     * @param gameRule 游戏规则版本
+     */
+    public MineSweeper(int row, int col, int mineCount, int gameRule) {
+        this(row, col, mineCount, false, gameRule);
+    }
+
+    /**
+     * 构造函数, 默认 WinXP 版本规则
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     * @param cheat 作弊与否
+     */
+    public MineSweeper(int row, int col, int mineCount, boolean cheat) {
+        this(row, col, mineCount, cheat, GAME_RULE_WIN_XP);
+    }
+
+    /**
+     * 最全的构造函数, 全部自己指定
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     * @param cheat 作弊与否
+     * @param gameRule 游戏规则版本
+     */
+    public MineSweeper(int row, int col, int mineCount, boolean cheat, int gameRule) {
+        this.initGame(row, col, mineCount, cheat, null, gameRule);
+    }
+
+    /**
+     * 手动指定雷的位置, 将会默认开启作弊
+     * 地雷视图包含了行、列、雷信息, 无需指定. 游戏规则在此无效, 第一步就可能触雷.
+     * @param mineBoard 地雷视图
+     */
+    public MineSweeper(boolean[][] mineBoard) {
+        int mineCount = 0;
+        for (boolean[] i : mineBoard) for (boolean j : i) {
+            if (j) ++mineCount;
+        }
+        this.initGame(mineBoard.length, mineBoard[0].length, mineCount, true, mineBoard, GAME_RULE_UNKNOWN);
+    }
+
+    /**
+     * 从文件读取棋局 (支持新局或残局, 文本格式或二进制格式 (见 BoardFile))
+     * @param file 文件
+     * @throws IOException 读文件可能出问题
+     */
+    public MineSweeper(File file) throws IOException {
+        if (BoardFile.isBoardFile(file)) this.loadGameFromBoardFile(BoardFile.open(file));
+        else this.loadGameFromFile(file);
+    }
+
+    /**
+     * 从二进制棋局 (文件或语料中的一条, 见 BoardFile、BoardCorpus) 读取棋局, 将会默认开启作弊
+     * @param board 棋局
+     */
+    public MineSweeper(BoardFile board) {
+        this.loadGameFromBoardFile(board);
+    }
+
+    /**
+     * 所有构造函数调用的初始化方法
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     * @param cheat 作弊与否
+     * @param mineBoard 地雷视图
+     * @param gameRule 游戏规则版本
+     */
+    protected void initGame(int row, int col, int mineCount, boolean cheat, boolean[][] mineBoard, int gameRule) {
+        this.state = PROCESS;
+        this.row = row;
+        this.col = col;
+        this.mineCount = mineCount;
+        this.gameRule = gameRule;
+        this.cheat = cheat;
+        this.showMine = false;
+        this.geometry = Geometry.of(row, col);
+        this.mineBoard = null;
+        this.numberBoard = null;
+        this.zeroRegions = null;
+        if (mineBoard != null) {
+            this.mineBoard = new long[(this.geometry.size + 63) >>> 6];
+            for (int i = 0; i < this.row; ++i) for (int j = 0; j < this.col; ++j) {
+                if (mineBoard[i][j]) this.setMine(this.index(i, j));
+            }
+            this.initNumberBoard();
+        }
+        this.playerBoard = this.geometry.newPlayerBoard();
+        this.playerBoardShared = false;
+        this.clearHistory();
+        this.coveredCellLeft = this.row * this.col - this.mineCount;
+        this.mineLeft = this.mineCount;
+        this.step = 0;
+    }
+
+    /**
+     * 初始化地雷视图
+     * 如果没指定地雷视图, 本方法将在点下左键第一步时触发 (右键不会触发).
+     * WinXP 规则下要求 mineCount < row * col - 1;
+     * Win7 规则下要求 mineCount < row * col - 9.
+     * 但是我这里并没有做自检, 因为还没想好不符合规则时应该怎么优雅地报错 (可埋的格子不够时只埋满为止).
+     * 随机数取自 this.random (未指定时随机取种), 见 setRandom.
+     * @param x 第一步左击的 x 坐标
+     * @param y 第一步左击的 y 坐标
+     */
+    protected void initRandomMineBoard(int x, int y) {
+        this.mineBoard = new long[(this.geometry.size + 63) >>> 6];
+        if (this.random == null) this.random = new SplittableRandom();
+        if (this.noGuess) {
+            boolean[][] mines = new NoGuessGenerator(this.row, this.col, this.mineCount, this.gameRule, x, y).generate(this.random);
+            for (int i = 0; i < this.row; ++i) for (int j = 0; j < this.col; ++j) {
+                if (mines[i][j]) this.setMine(this.index(i, j));
+            }
+            this.initNumberBoard();
+            return;
+        }
+        final int radius = this.gameRule == GAME_RULE_WIN_7 ? 2 : 1;
+        final int x0 = Math.max(x - radius + 1, 0), x1 = Math.min(x + radius - 1, this.row - 1);
+        final int y0 = Math.max(y - radius + 1, 0), y1 = Math.min(y + radius - 1, this.col - 1);
+        final int cellCount = this.row * this.col;
+        final int available = cellCount - (x1 - x0 + 1) * (y1 - y0 + 1);
+        final int mine = Math.min(this.mineCount, available);
+        if (mine << 1 <= available) {
+            // 雷不超过可埋格子的一半时直接拒绝采样, 期望抽取次数不超过 2 * mine, 且不需要分配任何数组
+            for (int placed = 0; placed < mine; ) {
+                int p = this.random.nextInt(cellCount);
+                int px = p / this.col, py = p % this.col;
+                if (px >= x0 && px <= x1 && py >= y0 && py <= y1) continue;
+                int index = this.index(px, py);
+                if (this.isMine(index)) continue;
+                this.setMine(index);
+                ++placed;
+            }
+        }
+        else {
+            // 雷很密时拒绝率太高, 改为在可埋格子上做部分 Fisher-Yates 洗牌, 只洗前 mine 个
+            int[] cells = new int[available];
+            int n = 0;
+            for (int i = 0; i < this.row; ++i) for (int j = 0; j < this.col; ++j) {
+                if (i >= x0 && i <= x1 && j >= y0 && j <= y1) continue;
+                cells[n++] = this.index(i, j);
+            }
+            for (int k = 0; k < mine; ++k) {
+                int r = k + this.random.nextInt(available - k);
+                int tmp = cells[r]; cells[r] = cells[k]; cells[k] = tmp;
+                this.setMine(cells[k]);
+            }
+        }
+        this.initNumberBoard();
+    }
+
+    /**
+     * 指定埋雷用的随机数流. 必须在第一步左击 (即埋雷) 之前调用, 否则不起作用.
+     * 多线程模拟时可以由一个主流 split() 出每局各自的流, 结果可复现且互不争用.
+     * @param random 随机数流
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * 是否生成无猜雷区: 开启后第一步左击时埋下的雷区, 从这一步开始只靠逻辑就能扫完 (见 NoGuessGenerator).
+     * 必须在第一步左击之前调用. 生成比普通埋雷慢得多, 超大棋盘 (HugeSweeper) 不支持.
+     * @param noGuess 是否无猜
+     */
+    public void setNoGuess(boolean noGuess) {
+        this.noGuess = noGuess;
+    }
+
+    /**
+     * 以给定的种子埋雷, 同一种子、同一规则、同一第一步总是得到同一个雷区. 必须在第一步左击之前调用.
+     * @param seed 种子
+     */
+    public void setSeed(long seed) {
+        this.setRandom(new SplittableRandom(seed));
+    }
+
+    /**
+     * 根据地雷视图算出数字视图与空白区域 (哨兵格子上的数字没有意义, 不会被读到)
+     * 埋雷后调用一次, 之后揭开格子时直接查表.
+     * 数字按位并行地算: 把地雷位图按 8 个方向错位, 每 64 格一组用位切片的加法器累加成 4 个位平面, 再拆回每格一字节.
+     */
+    private void initNumberBoard() {
+        final int size = this.geometry.size;
+        final int[] offsets = this.geometry.offsets;
+        this.numberBoard = new byte[size];
+        for (int w = 0; w << 6 < size; ++w) {
+            long c0 = 0, c1 = 0, c2 = 0, c3 = 0; // 计数的第 0 ~ 3 位, 每一位对应一格
+            for (int d : offsets) {
+                final long x = this.mineBits((w << 6) + d);
+                final long carry0 = c0 & x;
+                c0 ^= x;
+                final long carry1 = c1 & carry0;
+                c1 ^= carry0;
+                final long carry2 = c2 & carry1;
+                c2 ^= carry1;
+                c3 |= carry2; // 最多 8 个雷, 不会再进位
+            }
+            if ((c0 | c1 | c2 | c3) == 0) continue;
+            final int base = w << 6, n = Math.min(64, size - base);
+            for (int k = 0; k < n; ++k) {
+                this.numberBoard[base + k] = (byte) ((c0 >>> k & 1) | (c1 >>> k & 1) << 1 | (c2 >>> k & 1) << 2 | (c3 >>> k & 1) << 3);
+            }
+        }
+        this.zeroRegions = new ZeroRegions(this.geometry, this.mineBoard, this.numberBoard);
+    }
+
+    /**
+     * 从地雷位图中取出从 pos 开始的连续 64 位 (超出位图的部分为 0)
+     * @param pos 起始下标, 可以为负
+     * @return 第 k 位即下标为 pos + k 的格子是否是雷
+     */
+    private long mineBits(int pos) {
+        final long[] bits = this.mineBoard;
+        final int w = pos >> 6, shift = pos & 63;
+        final long lo = w >= 0 && w < bits.length ? bits[w] : 0;
+        if (shift == 0) return lo;
+        final long hi = w + 1 >= 0 && w + 1 < bits.length ? bits[w + 1] : 0;
+        return lo >>> shift | hi << (64 - shift);
+    }
+
+    /**
+     * 读取残局到游戏
+     * @param file 文件
+     * @throws IOException 读文件可能出错
+     */
+    private void loadGameFromFile(File file) throws IOException {
+        FileReader fileReader = new FileReader(file);
+        BufferedReader bufferedReader = new BufferedReader(fileReader);
+        List<String> lineList = new ArrayList<>();
+        String line = bufferedReader.readLine();
+        while (line != null && !line.equals("")) {
+            lineList.add(line.replaceAll(" ", ""));
+            line = bufferedReader.readLine();
+        }
+        bufferedReader.close();
+        fileReader.close();
+        int row = lineList.size(), col = lineList.get(0).length(), mine = 0;
+        boolean[][] mineBoard = new boolean[row][col];
+        for (int i = 0; i < lineList.size(); ++i) {
+            line = lineList.get(i);
+            for (int j = 0; j < lineList.get(0).length(); ++j) {
+                if (line.charAt(j) == CHAR_MINE || line.charAt(j) == CHAR_FLAG
+                        || line.charAt(j) == CHAR_QUESTION_ON_MINE) {
+                    mineBoard[i][j] = true;
+                    ++mine;
+                }
+            }
+        }
+        this.initGame(row, col, mine, true, mineBoard, GAME_RULE_UNKNOWN);
+
+        for (int i = 0; i < lineList.size(); ++i) {
+            line = lineList.get(i);
+            for (int j = 0; j < lineList.get(0).length(); ++j) {
+                switch (line.charAt(j)) {
+                    case CHAR_NUM: this.dig(i, j); break;
+                    case CHAR_FLAG: case CHAR_WRONG_FLAG: this.setFlag(this.index(i, j)); break;
+                    case CHAR_QUESTION_ON_NUM: case CHAR_QUESTION_ON_MINE:
+                        this.setQuestion(this.index(i, j)); break;
+                }
+            }
+        }
+        this.clearHistory(); // 读进来的残局即为历史的起点
+    }
+
+    /**
+     * 从二进制棋局文件读取棋局. 与文本格式不同, 游戏规则、状态、步数都会原样恢复
+     * @param board 映射好的棋局文件
+     */
+    private void loadGameFromBoardFile(BoardFile board) {
+        this.initGame(board.getRow(), board.getCol(), board.getMineCount(), true, null, board.getGameRule());
+        if (board.hasMines()) {
+            this.mineBoard = new long[(this.geometry.size + 63) >>> 6];
+            for (int i = 0; i < this.row; ++i) for (int j = 0; j < this.col; ++j) {
+                if (board.isMine(i, j)) this.setMine(this.index(i, j));
+            }
+            this.initNumberBoard();
+        }
+        this.restorePlayerBoard(board);
+    }
+
+    /**
+     * 从二进制棋局文件恢复玩家视图、游戏状态与步数 (地雷视图由调用者负责)
+     * @param board 映射好的棋局文件
+     */
+    protected void restorePlayerBoard(BoardFile board) {
+        board.decodeCells(this.playerBoard, this.geometry.stride); // initGame 刚分配的数组, 不会与别的游戏共用
+        this.coveredCellLeft = board.getCoveredCellLeft();
+        this.mineLeft = board.getMineLeft();
+        this.state = board.getGameState();
+        this.step = board.getStep();
+        this.clearHistory(); // 读进来的残局即为历史的起点
+    }
+
+    /**
+     * 保存残局到文件
+     * 文件名以 BoardFile.EXTENSION (.mswb) 结尾时保存为二进制格式, 否则为文本格式.
+     * @param file 文件
+     * @throws IOException 写文件可能出错
+     */
+    public void saveGameToFile(File file) throws IOException {
+        if (!cheat) return;
+        if (file.getName().endsWith(BoardFile.EXTENSION)) {
+            BoardFile.write(this, file);
+            return;
+        }
+        boolean isFileThere = file.exists() || file.createNewFile();
+        if (!isFileThere) throw new FileNotFoundException(file.getAbsolutePath());
+        FileWriter fileWriter = new FileWriter(file);
+        BufferedWriter bufferedWriter = new BufferedWriter(fileWriter);
+        for (int i = 0; i < this.row; ++i) {
+            for (int j = 0; j < this.col; ++j) {
+                char toWrite;
+                final int cell = this.playerBoard[this.index(i, j)];
+                final boolean mine = this.isMine(this.index(i, j));
+                if (cell < 9) toWrite = CHAR_NUM;
+                else if (cell == FLAG) {
+                    toWrite = (mine ? CHAR_FLAG : CHAR_WRONG_FLAG);
+                }
+                else if (cell == QUESTION) {
+                    toWrite = (mine ? CHAR_QUESTION_ON_MINE : CHAR_QUESTION_ON_NUM);
+                }
+                else {
+                    toWrite = (mine ? CHAR_MINE : CHAR_UNCHECKED);
+                }
+                bufferedWriter.write(toWrite + " ");
+            }
+            bufferedWriter.write("\n");
+        }
+        bufferedWriter.flush();
+        bufferedWriter.close();
+        fileWriter.close();
+    }
+
+    /**
+     * 格子坐标转为玩家视图、地雷视图中的一维下标 (按行优先存放, 外围有一圈哨兵). 不做越界检查, 对外请用 getIndex()
+     * @param x 格子的 x 坐标
+     * @param y 格子的 y 坐标
+     * @return 一维下标
+     */
+    protected int index(int x, int y) { return this.geometry.index(x, y); }
+
+    /**
+     * 查询地雷位图
+     * @param index 格子的一维下标
+     * @return 该格是否是雷
+     */
+    protected boolean isMine(int index) { return (this.mineBoard[index >>> 6] & (1L << index)) != 0; }
+
+    /**
+     * 在地雷位图中埋一颗雷
+     * @param index 格子的一维下标
+     */
+    protected void setMine(int index) { this.mineBoard[index >>> 6] |= 1L << index; }
+
+    /**
+     * 是否已经埋好雷 (随机雷区在第一步左击时才生成)
+     * @return 是否已埋雷
+     */
+    protected boolean hasMineBoard() { return this.mineBoard != null; }
+
+    /**
+     * 查询数字视图, 即某格周围的雷数. 只在埋雷之后调用
+     * @param index 格子的一维下标
+     * @return 周围的雷数
+     */
+    protected int getNumber(int index) { return this.numberBoard[index]; }
+
+    /**
+     * 将某个未被揭开的格子标记为地雷 (即鼠标右键的插旗)
+     * @param index 目标格子的下标
+     */
+    private void setFlag(int index) {
+        this.indexRangeCheck(index);
+        if (this.state != PROCESS) return;
+        if (this.playerBoard[index] == UNCHECKED || this.playerBoard[index] == QUESTION) {
+            this.beginOperation();
+            ++this.step;
+            this.setCell(index, FLAG);
+            this.endOperation();
+        }
+    }
+
+    /**
+     * 将某个被标旗的格子取消标记 (即鼠标右键的插旗)
+     * 同时剩余雷数会加一
+     * @param index 目标格子的下标
+     */
+    private void unsetFlag(int index) {
+        this.indexRangeCheck(index);
+        if (this.state == PROCESS && this.playerBoard[index] == FLAG) {
+            this.beginOperation();
+            ++this.step;
+            this.setCell(index, UNCHECKED);
+            this.endOperation();
+        }
+    }
+
+    /**
+     * 将一个未知或被标旗的格子设为问号格子  (即两次鼠标右键)
+     * @param index 目标格子的下标
+     */
+    private void setQuestion(int index) {
+        this.indexRangeCheck(index);
+        if (this.state != PROCESS) return;
+        if (this.playerBoard[index] == UNCHECKED || this.playerBoard[index] == FLAG) {
+            this.beginOperation();
+            ++this.step;
+            this.setCell(index, QUESTION);
+            this.endOperation();
+        }
+    }
+
+    /**
+     * 将一个问号格子设为未知格子
+     * @param index 目标格子的下标
+     */
+    private void unsetQuestion(int index) {
+        this.indexRangeCheck(index);
+        if (this.state == PROCESS && this.playerBoard[index] == QUESTION) {
+            this.beginOperation();
+            ++this.step;
+            this.setCell(index, UNCHECKED);
+            this.endOperation();
+        }
+    }
+
+    /**
+     * 游戏胜利或结束后, 更新游戏状态并公布所有的雷
+     * @param state 最终游戏状态
+     * @return 最终游戏状态
+     */
+    private int endAndPublishMineBoard(int state) {
+        for (int i = 0; i < this.playerBoard.length; ++i) {
+            if (this.playerBoard[i] == FLAG && !this.isMine(i)) this.setCell(i, NOT_MINE);
+            else if ((this.playerBoard[i] == UNCHECKED || this.playerBoard[i] == QUESTION)
+                    && this.isMine(i)) this.setCell(i, MINE);
+        }
+        return this.state = state;
+    }
+
+    /**
+     * 修改玩家视图中的一个格子. 所有对玩家视图的修改都应该经过这里, 以便记录操作日志、维护计数
+     * coveredCellLeft 随「数字 / 非数字」的变化增减, mineLeft 随「旗子 / 非旗子」的变化增减.
+     * NOT_MINE (标错的旗子) 也算旗子, 这样公布雷区、check 失败时把旗子改为 NOT_MINE 不会改变剩余雷数.
+     * @param index 格子的下标
+     * @param state 新的格子状态
+     */
+    protected void setCell(int index, int state) {
+        final int old = this.playerBoard[index];
+        if (old == state) return;
+        if (this.opDepth > 0 && this.cheat) {
+            this.journal.add(index);
+            this.journal.add((old & 0xff) << 8 | state);
+        }
+        if (this.opDepth > 0 && this.changeListeners != null) {
+            this.changes.add(index);
+            this.changes.add((old & 0xff) << 8 | state);
+        }
+        if (old < 9) ++this.coveredCellLeft;
+        if (state < 9) --this.coveredCellLeft;
+        if (old == FLAG || old == NOT_MINE) ++this.mineLeft;
+        if (state == FLAG || state == NOT_MINE) --this.mineLeft;
+        if (this.playerBoardShared) this.ownPlayerBoard();
+        this.playerBoard[index] = (byte) state;
+    }
+
+    /**
+     * 分叉出一局可写的子游戏, 供调用者试走几步看看结果 (如「如果这样走会怎样」的推演), 用完丢掉即可.
+     * 子游戏与本局共用玩家视图, 哪一方先修改才由哪一方复制一份 (写时复制); 地雷、数字视图埋好后不再修改, 始终共用;
+     * 操作日志、BFS 队列等也是用到时才分配. 所以分叉只需常数时间, 没有修改过的分支只占这一个对象的内存.
+     * AutoSweeper 的胜率搜索是在假设的棋盘上做的 (见其中的 DebugSweeper), 不经过这里.
+     * 子游戏不继承操作日志、监听者与随机数流: 尚未埋雷时分叉, 子游戏第一次左击会另行埋雷.
+     * 共用的部分没有加锁, 父子游戏应在同一线程中使用.
+     * @return 子游戏
+     */
+    public MineSweeper fork() {
+        return new MineSweeper(this);
+    }
+
+    /**
+     * 玩家视图与分叉出的游戏共用时, 修改前先复制一份自己的
+     */
+    private void ownPlayerBoard() {
+        this.playerBoard = this.playerBoard.clone();
+        this.playerBoardShared = false;
+    }
+
+    /**
+     * 开始一个操作 (可嵌套, 只有最外层生效). 之后经过 setCell 的修改都归入该操作, 撤销时一起撤销.
+     * 新操作会丢弃所有可重做的操作.
+     */
+    protected void beginOperation() {
+        if (this.opDepth++ > 0 || !this.cheat) return;
+        if (this.journal == null) {
+            this.journal = new IntList(256);
+            this.opInfo = new IntList(64);
+        }
+        if (this.opCursor < this.opCount) {
+            this.journal.truncate(this.opInfo.get(this.opCursor * OP_INFO_SIZE));
+            this.opInfo.truncate(this.opCursor * OP_INFO_SIZE);
+            this.opCount = this.opCursor;
+        }
+        this.opInfo.add(this.journal.size());
+        this.opInfo.add(this.state);
+        this.opInfo.add(this.step);
+        this.opInfo.add(this.coveredCellLeft);
+        this.opInfo.add(this.mineLeft);
+    }
+
+    /**
+     * 结束一个操作, 记录操作后的游戏状态. 什么也没改变 (格子、步数、状态都没变) 的操作不会留在日志里
+     * @return 当前游戏状态 (方便直接 return)
+     */
+    protected int endOperation() {
+        if (--this.opDepth > 0) return this.state;
+        this.publishChanges();
+        if (!this.cheat) return this.state;
+        final int base = this.opCount * OP_INFO_SIZE;
+        // 既没改动格子也没改变步数、状态的操作才丢弃 (如 check 一个周围已满足的数字也算一步, 要留着, 否则撤销、重做后步数对不上)
+        if (this.journal.size() == this.opInfo.get(base)
+                && this.state == this.opInfo.get(base + 1) && this.step == this.opInfo.get(base + 2)) {
+            this.opInfo.truncate(base);
+            return this.state;
+        }
+        this.opInfo.add(this.state);
+        this.opInfo.add(this.step);
+        this.opInfo.add(this.coveredCellLeft);
+        this.opInfo.add(this.mineLeft);
+        this.opCursor = ++this.opCount;
+        return this.state;
+    }
+
+    /**
+     * 清空操作日志 (新开一局、读取残局后调用)
+     */
+    protected void clearHistory() {
+        if (this.journal != null) {
+            this.journal.clear();
+            this.opInfo.clear();
+        }
+        this.opCount = this.opCursor = this.opDepth = 0;
+    }
+
+    /**
+     * 撤销上一个操作 (只有开了作弊才允许撤销). 可以连续撤销直到开局
+     */
+    public void undo() {
+        if (!this.cheat || this.opCursor == 0) return;
+        if (this.playerBoardShared) this.ownPlayerBoard();
+        final int base = --this.opCursor * OP_INFO_SIZE;
+        final int end = this.opCursor + 1 == this.opCount ? this.journal.size() : this.opInfo.get(base + OP_INFO_SIZE);
+        for (int i = end - 2; i >= this.opInfo.get(base); i -= 2) {
+            final int change = this.journal.get(i + 1);
+            this.playerBoard[this.journal.get(i)] = (byte) (change >>> 8);
+            if (this.changeListeners != null) {
+                this.changes.add(this.journal.get(i));
+                this.changes.add((change & 0xff) << 8 | change >>> 8); // 撤销即反向的改动
+            }
+        }
+        this.restoreCounters(base + 1);
+        this.publishChanges();
+    }
+
+    /**
+     * 重做上一个被撤销的操作 (只有开了作弊才允许)
+     */
+    public void redo() {
+        if (!this.cheat || this.opCursor == this.opCount) return;
+        if (this.playerBoardShared) this.ownPlayerBoard();
+        final int base = this.opCursor++ * OP_INFO_SIZE;
+        final int end = this.opCursor == this.opCount ? this.journal.size() : this.opInfo.get(base + OP_INFO_SIZE);
+        for (int i = this.opInfo.get(base); i < end; i += 2) {
+            this.playerBoard[this.journal.get(i)] = (byte) (this.journal.get(i + 1) & 0xff);
+            if (this.changeListeners != null) {
+                this.changes.add(this.journal.get(i));
+                this.changes.add(this.journal.get(i + 1));
+            }
+        }
+        this.restoreCounters(base + 5);
+        this.publishChanges();
+    }
+
+    /**
+     * 跳转到历史中的某个位置 (0 即开局或读取残局后, getHistorySize() 即最后一个操作之后)
+     * @param position 目标位置, 超出范围的会被截断
+     */
+    public void jumpTo(int position) {
+        if (!this.cheat) return;
+        position = Math.max(0, Math.min(position, this.opCount));
+        while (this.opCursor > position) this.undo();
+        while (this.opCursor < position) this.redo();
+    }
+
+    public boolean canUndo() { return this.cheat && this.opCursor > 0; }
+    public boolean canRedo() { return this.cheat && this.opCursor < this.opCount; }
+    public int getHistoryPosition() { return this.opCursor; }
+    public int getHistorySize() { return this.opCount; }
+
+    /**
+     * 注册一个格子变化的监听者. 之后每个改动了格子的操作 (包括撤销、重做) 结束时, 监听者都会收到该操作的全部改动,
+     * 于是界面、AI、录像等都不必再比对整个棋盘. 监听者在执行操作的线程中被调用.
+     * @param listener 监听者
+     */
+    public synchronized void addChangeListener(ChangeListener listener) {
+        if (this.changes == null) this.changes = new IntList(64);
+        List<ChangeListener> listeners = this.changeListeners == null ? new ArrayList<>(2) : new ArrayList<>(this.changeListeners);
+        listeners.add(listener);
+        this.changeListeners = listeners;
+    }
+
+    /**
+     * 移除一个格子变化的监听者. 可以在别的线程中调用 (如界面换了新游戏, 而旧游戏的 AI 线程还在走), 返回后不会再收到新的操作
+     * (正在发布的那一个操作除外)
+     * @param listener 监听者
+     */
+    public synchronized void removeChangeListener(ChangeListener listener) {
+        if (this.changeListeners == null) return;
+        List<ChangeListener> listeners = new ArrayList<>(this.changeListeners);
+        listeners.remove(listener);
+        this.changeListeners = listeners.isEmpty() ? null : listeners;
+    }
+
+    /**
+     * 把当前操作的改动发给所有监听者
+     */
+    private void publishChanges() {
+        final List<ChangeListener> listeners = this.changeListeners;
+        if (listeners == null || this.changes.isEmpty()) {
+            if (this.changes != null) this.changes.clear();
+            return;
+        }
+        final int opId = this.changeOpId++;
+        for (ChangeListener listener : listeners) listener.onCellsChanged(opId, this.changes);
+        this.changes.clear();
+    }
+
+    /**
+     * 从 opInfo 中恢复 state、step、coveredCellLeft、mineLeft
+     * @param from 在 opInfo 中的起始位置
+     */
+    private void restoreCounters(int from) {
+        this.state = this.opInfo.get(from);
+        this.step = this.opInfo.get(from + 1);
+        this.coveredCellLeft = this.opInfo.get(from + 2);
+        this.mineLeft = this.opInfo.get(from + 3);
+    }
+
+    /**
+     * 挖掘某个未知的格子 (即鼠标左键)
+     * @param x 目标格子的 x 坐标
+     * @param y 目标格子的 y 坐标
+     * @return 执行该操作后的游戏状态
+     */
+    public int dig(int x, int y) {
+        this.pointRangeCheck(x, y);
+        return this.dig(this.index(x, y));
+    }
+
+    /**
+     * 挖掘某个未知的格子 (即鼠标左键)
+     * @param index 目标格子的下标
+     * @return 执行该操作后的游戏状态
+     */
+    public int dig(int index) { return this.dig(index, null); }
+
+    /**
+     * 挖掘某个未知的格子, 并告知调用者哪些格子因此被揭开了
+     * 揭开 0 时会 BFS 展开整片区域. 每个格子在入队时就被揭开, 所以队列里的格子不重复, 队列本身就是被揭开的格子集合.
+     * @param index 目标格子的下标
+     * @param revealed 被揭开的格子会依次追加在其末尾 (踩雷时不追加). 不关心的话传 null
+     * @return 执行该操作后的游戏状态
+     */
+    public int dig(int index, IntList revealed) {
+        this.indexRangeCheck(index);
+        if (this.state != PROCESS
+                || (this.playerBoard[index] != UNCHECKED && this.playerBoard[index] != QUESTION)) return this.state;
+        this.beginOperation();
+        if (!this.reveal(index, revealed)) this.endAndPublishMineBoard(LOSE);
+        else if (this.coveredCellLeft == 0) this.endAndPublishMineBoard(WIN);
+        return this.endOperation();
+    }
+
+    /**
+     * dig 与 applyBatch 共用的揭开逻辑: 揭开一个未知格子 (是 0 则展开整片区域), 不判断胜负.
+     * 调用者负责检查游戏状态、开始与结束操作.
+     * @param index 目标格子的下标 (非未知格子则什么也不做)
+     * @param revealed 被揭开的格子会依次追加在其末尾 (踩雷时不追加). 不关心的话传 null
+     * @return 是否安全 (踩雷则为 false, 此时该格已被标为 RED_MINE)
+     */
+    private boolean reveal(int index, IntList revealed) {
+        if (this.playerBoard[index] != UNCHECKED && this.playerBoard[index] != QUESTION) return true;
+        ++this.step;
+
+        if (!this.hasMineBoard()) this.initRandomMineBoard(this.getX(index), this.getY(index));
+        if (this.isMine(index)) {
+            this.setCell(index, RED_MINE);
+            return false;
+        }
+
+        if (this.zeroRegions != null && this.revealZeroRegion(index, revealed)) return true;
+
+        if (revealed == null && this.revealQueue == null) this.revealQueue = new IntList(64);
+        final IntList queue = revealed == null ? this.revealQueue : revealed;
+        if (revealed == null) queue.clear();
+        final int[] offsets = this.geometry.offsets;
+        if (this.playerBoardShared) this.ownPlayerBoard(); // 先复制好, 否则 setCell 换掉 playerBoard 后 board 还指着共用的旧数组
+        final byte[] board = this.playerBoard;
+        int head = queue.size();
+        this.setCell(index, this.getNumber(index));
+        queue.add(index);
+        for (; head < queue.size(); ++head) {
+            final int p = queue.get(head);
+            if (board[p] != 0) continue;
+            for (int d : offsets) { // 哨兵格子既不是 UNCHECKED 也不是 QUESTION, 无需判断边界
+                final int pa = p + d;
+                if (board[pa] == UNCHECKED || board[pa] == QUESTION) {
+                    this.setCell(pa, this.getNumber(pa));
+                    queue.add(pa);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 揭开 0 时直接照预先算好的空白区域揭开整片, 不必 BFS.
+     * 只有区域里的 0 都还没被揭开、也没被标记旗子时, 结果才与 BFS 相同 (比如读进来的残局可能在 0 上插了旗), 否则交给 BFS.
+     * @param index 目标格子的下标
+     * @param revealed 被揭开的格子会追加在其末尾, 不关心的话传 null
+     * @return 是否已经揭开 (false 即需要 BFS)
+     */
+    private boolean revealZeroRegion(int index, IntList revealed) {
+        final int region = this.zeroRegions.regionOf(index);
+        if (region < 0) return false;
+        final int[] cells = this.zeroRegions.cells;
+        final int start = this.zeroRegions.start[region], end = this.zeroRegions.start[region + 1];
+        for (int i = start; i < this.zeroRegions.zeroEnd[region]; ++i) {
+            final int cell = this.playerBoard[cells[i]];
+            if (cell != UNCHECKED && cell != QUESTION) return false;
+        }
+        for (int i = start; i < end; ++i) {
+            final int p = cells[i], cell = this.playerBoard[p];
+            if (cell != UNCHECKED && cell != QUESTION) continue; // 外围的数字可能已经从相邻的区域揭开了
+            this.setCell(p, this.getNumber(p));
+            if (revealed != null) revealed.add(p);
+        }
+        return true;
+    }
+
+    /**
+     * 批量执行一组挖掘与标旗 (先依次挖掘, 再依次标旗), 整批算作一个操作: 只留一条撤销记录、只判断一次胜负、只发布一次改动.
+     * 与逐个调用 dig、mark 的结果相同, 但省掉了每次的操作日志开销与状态检查. 踩雷或已经胜利后, 剩下的挖掘与标旗都不再执行.
+     * 不是未知格子的会被跳过, 所以同一格出现多次也没有关系.
+     * 子类 (如 WinXpSweeper) 可以覆写它, 把整批的鼠标动作一次做完再统一更新棋盘.
+     * @param digs 要挖掘的格子的下标, 可为 null
+     * @param flags 要标旗的格子的下标, 可为 null
+     * @return 执行后的游戏状态
+     */
+    public int applyBatch(int[] digs, int[] flags) {
+        // 先检查完所有下标再开始操作, 免得越界异常抛出时操作只做了一半、也没有结束
+        if (digs != null) for (int index : digs) this.indexRangeCheck(index);
+        if (flags != null) for (int index : flags) this.indexRangeCheck(index);
+        if (this.state != PROCESS) return this.state;
+        this.beginOperation();
+        if (digs != null) for (int index : digs) {
+            if (this.coveredCellLeft == 0) break; // 剩下的未知格子都是雷了
+            if (!this.reveal(index, null)) {
+                this.endAndPublishMineBoard(LOSE);
+                return this.endOperation();
+            }
+        }
+        if (this.coveredCellLeft == 0) {
+            this.endAndPublishMineBoard(WIN);
+            return this.endOperation();
+        }
+        if (flags != null) for (int index : flags) {
+            if (this.playerBoard[index] != UNCHECKED && this.playerBoard[index] != QUESTION) continue;
+            ++this.step;
+            this.setCell(index, FLAG);
+        }
+        return this.endOperation();
+    }
+
+    /**
+     * 检查一个已被揭开的格子周围 8 格并自动揭开 (即鼠标左右键同时点击)
+     * @param x 目标格子的 x 坐标
+     * @param y 目标格子的 y 坐标
+     * @return 执行该操作后的游戏状态
+     */
+    public int check(int x, int y) {
+        this.pointRangeCheck(x, y);
+        return this.check(this.index(x, y));
+    }
+
+    /**
+     * 检查一个已被揭开的格子周围 8 格并自动揭开 (即鼠标左右键同时点击)
+     * @param index 目标格子的下标
+     * @return 执行该操作后的游戏状态
+     */
+    public int check(int index) {
+        this.indexRangeCheck(index);
+        if (this.state != PROCESS || this.playerBoard[index] > 8) return this.state;
+
+        final int[] offsets = this.geometry.offsets;
+        int flagCount = 0;
+        for (int d : offsets) {
+            if (this.playerBoard[index + d] == FLAG) ++flagCount;
+        }
+        if (flagCount != this.playerBoard[index]) return this.state;
+        this.beginOperation();
+        ++this.step;
+
+        boolean fail = false;
+        for (int d : offsets) {
+            final int p = index + d;
+            if ((this.playerBoard[p] == UNCHECKED || this.playerBoard[p] == QUESTION) && this.isMine(p)) {
+                fail = true;
+                this.setCell(p, RED_MINE);
+            }
+            else if (this.playerBoard[p] == FLAG && !this.isMine(p)) {
+                fail = true;
+                this.setCell(p, NOT_MINE);
+            }
+        }
+        if (fail) {
+            this.endAndPublishMineBoard(LOSE);
+            return this.endOperation();
+        }
+
+        for (int d : offsets) {
+            final int p = index + d;
+            if (this.playerBoard[p] == UNCHECKED || this.playerBoard[p] == QUESTION) this.dig(p);
+        }
+        return this.endOperation();
+    }
+
+    /**
+     * 循环标旗、标问号、取消所有标记 (即鼠标右键)
+     * @param x 目标格子的 x 坐标
+     * @param y 目标格子的 y 坐标
+     * @return 执行该操作后的游戏状态
+     */
+    public int mark(int x, int y) {
+        this.pointRangeCheck(x, y);
+        return this.mark(this.index(x, y));
+    }
+
+    /**
+     * 循环标旗、标问号、取消所有标记 (即鼠标右键)
+     * @param index 目标格子的下标
+     * @return 执行该操作后的游戏状态
+     */
+    public int mark(int index) {
+        this.indexRangeCheck(index);
+        if (this.state != PROCESS) return this.state;
+        this.beginOperation();
+        switch (this.playerBoard[index]) {
+            case UNCHECKED: this.setFlag(index); break;
+            case FLAG: this.unsetFlag(index); if (allowQuestionMark) this.setQuestion(index); break;
+            case QUESTION: this.unsetQuestion(index); break;
+        }
+        return this.endOperation();
+    }
+
+    /**
+     * 为 AI 特供的高速挖掘接口. 将不必要的更新挪到 lazyUpdate() 统一处理. 在本类中无作用, 主要是为 WinXpSweeper 提供的.
+     * @param x x
+     * @param y x
+     */
+    public void quickDig(int x, int y) { this.quickDig(this.getIndex(x, y)); }
+
+    /**
+     * 下标版本的 quickDig. 子类只需覆写这个方法
+     * @param index 目标格子的下标
+     */
+    public void quickDig(int index) { this.dig(index); }
+
+    /**
+     * 为 AI 特供的高速插旗接口. 将不必要的更新挪到 lazyUpdate() 统一处理. 在本类中无作用, 主要是为 WinXpSweeper 提供的.
+     * @param x x
+     * @param y x
+     */
+    public void quickFlag(int x, int y) { this.quickFlag(this.getIndex(x, y)); }
+
+    /**
+     * 下标版本的 quickFlag. 子类只需覆写这个方法
+     * @param index 目标格子的下标
+     */
+    public void quickFlag(int index) { this.setFlag(index); }
+
+    /**
+     * 为 AI 特供的高速接口. 懒惰加载, 统一处理棋盘的更新. 在本类中无作用, 主要是为 WinXpSweeper 提供的.
+     */
+    public void lazyUpdate() {}
+
+    // 一些游戏信息变量的 get 方法 (如果要返回对象, 会返回一个副本以防止篡改. 同时有些变量在非作弊状态下不允许获取)
+    public int getGameState() { return this.state; }
+    public int getRow() { return this.row; }
+    public int getCol() { return this.col; }
+    public int getMineCount() { return this.mineCount; }
+    public int getMineLeft() { return this.mineLeft; }
+    public int getUncheckedCellLeft() { return this.coveredCellLeft + this.mineLeft; }
+    public int getStep() { return this.step; }
+    public int getGameRule() { return this.gameRule; }
+    public boolean getCheat() { return this.cheat; }
+
+    public int getPlayerBoard(int x, int y) { return this.getPlayerBoard(x, y, false); }
+    public int getPlayerBoard(int x, int y, boolean showMineIfAllowed) {
+        this.pointRangeCheck(x, y);
+        if (showMineIfAllowed && this.cheat && this.showMine && this.getMineBoard(x, y) && this.playerBoard[this.index(x, y)] == UNCHECKED) return GRAY_MINE;
+        return this.playerBoard[this.index(x, y)];
+    }
+
+    /**
+     * 以下标读取玩家视图. 供 AI 等热点循环使用, 不做越界检查
+     * @param index 格子的下标 (来自 getIndex() 或 getAround())
+     * @return 格子状态
+     */
+    public int getPlayerBoard(int index) { return this.playerBoard[index]; }
+
+    public int[][] getPlayerBoard() { return this.getPlayerBoard(false); }
+    public int[][] getPlayerBoard(boolean showMineIfAllowed) {
+        int[][] board = new int[this.row][this.col];
+        for (int i = 0; i < this.row; ++i) for (int j = 0; j < this.col; ++j) {
+            board[i][j] = this.playerBoard[this.index(i, j)];
+        }
+        if (showMineIfAllowed && this.cheat && this.showMine) {
+            for (int i = 0; i < this.row; ++i) for (int j = 0; j < this.col; ++j) {
+                if (this.getMineBoard(i, j) && board[i][j] == UNCHECKED) board[i][j] = GRAY_MINE;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * 以下标存放的玩家视图副本, 长度为 getIndexBound(). AI 在其上做假设、回溯时不会影响游戏本体
+     * 棋盘外围一圈为 BORDER 哨兵, 所以沿 getNeighborOffsets() 走一圈不会越界, 也无需判断边界.
+     * @return 玩家视图副本
+     */
+    public byte[] getPackedPlayerBoard() { return this.playerBoard.clone(); }
+
+    /**
+     * 以下标存放的玩家视图本身 (不复制), 供同包的 AI 只读地使用, 省掉每次复制. 游戏被修改后它可能过时 (写时复制会换掉数组),
+     * 所以不要长期持有, 也不要修改; 需要在其上做假设时用 getPackedPlayerBoard()
+     * @return 玩家视图
+     */
+    byte[] readPackedPlayerBoard() { return this.playerBoard; }
+
+    public boolean getMineBoard(int x, int y) {
+        if (this.cheat && this.hasMineBoard()) return this.isMine(this.index(x, y));
+        return false;
+    }
+
+    public boolean getMineBoard(int index) {
+        if (this.cheat && this.hasMineBoard()) return this.isMine(index);
+        return false;
+    }
+
+    /**
+     * 雷区的 3BV: 不插旗时至少要点几下才能扫完, 即空白区域数 + 孤立数字数. 常用来衡量一个雷区的难易.
+     * 只有开了作弊或游戏已结束时才允许获取, 且需要已经埋好雷 (超大棋盘不统计).
+     * @return 3BV, 不允许获取时为 -1
+     */
+    public int get3BV() {
+        if (!this.canGetBoardStats()) return -1;
+        return this.zeroRegions.getRegionCount() + this.zeroRegions.getIsolatedNumberCount();
+    }
+
+    /**
+     * 雷区中空白区域 (点一下能打开一片的地方) 的个数. 获取条件同 get3BV
+     * @return 空白区域数, 不允许获取时为 -1
+     */
+    public int getOpeningCount() {
+        return this.canGetBoardStats() ? this.zeroRegions.getRegionCount() : -1;
+    }
+
+    /**
+     * 雷区中孤立数字 (周围没有 0 的非雷格子) 的个数. 获取条件同 get3BV
+     * @return 孤立数字数, 不允许获取时为 -1
+     */
+    public int getIsolatedNumberCount() {
+        return this.canGetBoardStats() ? this.zeroRegions.getIsolatedNumberCount() : -1;
+    }
+
+    private boolean canGetBoardStats() {
+        return this.zeroRegions != null && (this.cheat || this.state != PROCESS);
+    }
+
+    public boolean[][] getMineBoard() {
+        if (!this.cheat || !this.hasMineBoard()) return null;
+        boolean[][] board = new boolean[this.row][this.col];
+        for (int i = 0; i < this.row; ++i) for (int j = 0; j < this.col; ++j) {
+            board[i][j] = this.isMine(this.index(i, j));
+        }
+        return board;
+    }
+
+    /**
+     * 获得某格子周围一圈所有格子 (由于有边界的存在, 周围格子在 0 ~ 8 格之间)
+     * (也不知道我当时怎么想的, 两个 for 遍历一下周围 9 个格子不就好了, 整这么麻烦)
+     * @param x 目标格子的 x 坐标
+     * @param y 目标格子的 y 坐标
+     * @return 周围一圈的所有格子
+     */
+    public List<Point> getAround(int x, int y) {
+        this.pointRangeCheck(x, y);
+        List<Point> around = new ArrayList<>();
+        boolean up    = x - 1 >= 0;
+        boolean down  = x + 1 < this.row;
+        boolean left  = y - 1 >= 0;
+        boolean right = y + 1 < this.col;
+        if (up && left)    around.add(new Point(x - 1, y - 1));
+        if (up)            around.add(new Point(x - 1, y    ));
+        if (up && right)   around.add(new Point(x - 1, y + 1));
+        if (left)          around.add(new Point(x    , y - 1));
+        if (right)         around.add(new Point(x    , y + 1));
+        if (down && left)  around.add(new Point(x + 1, y - 1));
+        if (down)          around.add(new Point(x + 1, y    ));
+        if (down && right) around.add(new Point(x + 1, y + 1));
+        return around;
+    }
+
+    /**
+     * 下标版本的 getAround, 不分配任何对象. 顺序与 getAround(x, y) 一致 (从左上到右下)
+     * @param index 目标格子的下标
+     * @param around 用于存放结果的数组, 长度至少为 8
+     * @return 周围格子的个数 (结果存放在 around[0] ~ around[返回值 - 1])
+     */
+    public int getAround(int index, int[] around) {
+        if (this.geometry.neighbors == null) {
+            // 超大棋盘没有邻居表, 沿偏移走一圈跳过哨兵即可
+            int n = 0;
+            for (int d : this.geometry.offsets) {
+                if (this.playerBoard[index + d] != BORDER) around[n++] = index + d;
+            }
+            return n;
+        }
+        final int n = this.geometry.neighborCount[index];
+        System.arraycopy(this.geometry.neighbors, index << 3, around, 0, n);
+        return n;
+    }
+
+    /**
+     * 周围 8 格相对于中心格子的下标偏移 (顺序与 getAround 一致). 配合外围的哨兵格子, 热点循环可以直接
+     * for (int d : offsets) 访问 board[index + d] 而无需判断边界. 返回的数组为同尺寸棋局共用, 请勿修改
+     * @return 8 个偏移量
+     */
+    public int[] getNeighborOffsets() { return this.geometry.offsets; }
+
+    /**
+     * 格子坐标转下标 (会做越界检查)
+     * 下标是玩家视图、地雷视图在内部的一维存放位置, AI 等需要反复访问格子的地方应该尽量使用下标版本的接口.
+     * @param x 格子的 x 坐标
+     * @param y 格子的 y 坐标
+     * @return 格子的下标
+     */
+    public int getIndex(int x, int y) {
+        this.pointRangeCheck(x, y);
+        return this.index(x, y);
+    }
+
+    public int getX(int index) { return index / this.geometry.stride - 1; }
+    public int getY(int index) { return index % this.geometry.stride - 1; }
+
+    /**
+     * 下标的上界 (不含, 包括外围的哨兵格子). 以下标为索引的数组开这么大就够了
+     * @return 下标上界
+     */
+    public int getIndexBound() { return this.playerBoard.length; }
+
+    /**
+     * 计算格子坐标是否是否越界
+     * @param x 待判定的 x 坐标
+     * @param y 待判定的 y 坐标
+     * @return 是否在界内
+     */
+    public boolean isPointInRange(int x, int y) {
+        return x >= 0 && x < this.row && y >= 0 && y < this.col;
+    }
+
+    /**
+     * 检查格子坐标是否是否越界 (越界则抛出异常)
+     * @param x 待判定的 x 坐标
+     * @param y 待判定的 y 坐标
+     */
+    public void pointRangeCheck(int x, int y) {
+        if (!this.isPointInRange(x, y)) throw new PointOutOfBoundsException(x, y, this.row, this.col);
+    }
+
+    /**
+     * 计算格子下标是否越界
+     * @param index 待判定的下标
+     * @return 是否在界内
+     */
+    public boolean isIndexInRange(int index) {
+        return index >= 0 && index < this.geometry.size && this.playerBoard[index] != BORDER;
+    }
+
+    /**
+     * 检查格子下标是否越界 (越界则抛出异常)
+     * @param index 待判定的下标
+     */
+    public void indexRangeCheck(int index) {
+        if (!this.isIndexInRange(index)) {
+            throw new PointOutOfBoundsException(this.getX(index), this.getY(index), this.row, this.col);
+        }
+    }
+
+    /**
+     * 设置是否在玩家视图上显示地雷 (需要作弊. 有雷的未知格子会被标记为 GRAY_MINE)
+     * @param flag 显示与否
+     */
+    public void setShowMine(boolean flag) { if (cheat) this.showMine = flag; }
+    public boolean getShowMine() { return this.showMine; }
+
+    public static void setAllowQuestionMark(boolean flag) { allowQuestionMark = flag; }
+    public static boolean getAllowQuestionMark() { return allowQuestionMark; }
+
+    /**
+     * 控制台输出地雷视图
+     */
+    public void printMineBoardToConsole() {
+        if (!this.cheat || !this.hasMineBoard()) System.out.println("null");
+        else {
+            for (int i = 0; i < this.row; ++i) {
+                for (int j = 0; j < this.col; ++j) {
+                    if (this.isMine(this.index(i, j))) System.out.print(" * ");
+                    else if (this.playerBoard[this.index(i, j)] == UNCHECKED) System.out.print("   ");
+                    else if (this.playerBoard[this.index(i, j)] == FLAG) System.out.print(" F ");
+                    else if (this.playerBoard[this.index(i, j)] == QUESTION) System.out.print(" ? ");
+                    else if (this.playerBoard[this.index(i, j)] == MINE) System.out.print(" * ");
+                    else if (this.playerBoard[this.index(i, j)] == NOT_MINE) System.out.print(" X ");
+                    else if (this.playerBoard[this.index(i, j)] == RED_MINE) System.out.print(" O ");
+                    else System.out.print(" " + this.playerBoard[this.index(i, j)] + " ");
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    /**
+     * 控制台输出玩家视图
+     */
+    public void printPlayerBoardToConsole() {
+        if (this.cheat && !this.hasMineBoard()) System.out.println("null");
+        else {
+            for (int i = 0; i < this.col; ++i) System.out.print("---");
+            System.out.println();
+            for (int x = 0; x < this.row; ++x) {
+                for (int y = 0; y < this.col; ++y) {
+                    final int j = this.playerBoard[this.index(x, y)];
+                    switch (j) {
+                        case UNCHECKED: System.out.print("   "); break;
+                        case FLAG:      System.out.print(" F "); break;
+                        case QUESTION:  System.out.print(" ? "); break;
+                        case MINE:      System.out.print(" * "); break;
+                        case NOT_MINE:  System.out.print(" X "); break;
+                        case RED_MINE:  System.out.print(" O "); break;
+                        default: System.out.print(" " + j + " "); break;
+                    }
+                }
+                System.out.println();
+            }
+            for (int i = 0; i < this.col; ++i) System.out.print("---");
+            System.out.println();
+        }
+    }
+
+    /**
+     * 一个雷区中所有的空白区域 (8 连通的一片 0, 连同其外围一圈数字), 即点开其中任意一个 0 会揭开的全部格子.
+     * 埋雷后用并查集一次性求出, 之后不再修改 (分叉出的游戏共用).
+     * 顺带统计了不与任何 0 相邻的孤立数字, 于是 3BV (不插旗时最少要点几下) = 空白区域数 + 孤立数字数.
+     */
+    static final class ZeroRegions {
+        private final int[] region;     // 每个 0 格子所属的区域编号, 其他格子为 -1
+        final int[] start;              // 第 r 个区域的格子存放在 cells 的 [start[r], start[r + 1])
+        final int[] zeroEnd;            // 其中 [start[r], zeroEnd[r]) 是 0, 其余是外围的数字
+        final int[] cells;
+        private final int isolatedNumberCount;
+
+        ZeroRegions(Geometry geometry, long[] mineBoard, byte[] numberBoard) {
+            final int[] offsets = geometry.offsets;
+            final int[] parent = new int[geometry.size];
+            Arrays.fill(parent, -1);
+            int zeroCount = 0;
+            for (int i = 0; i < geometry.row; ++i) for (int j = 0; j < geometry.col; ++j) {
+                final int index = geometry.index(i, j);
+                if (numberBoard[index] != 0 || (mineBoard[index >>> 6] & (1L << index)) != 0) continue;
+                parent[index] = index;
+                ++zeroCount;
+                for (int k = 0; k < 4; ++k) { // 左上、上、右上、左这 4 个邻居已经处理过了
+                    final int pa = index + offsets[k];
+                    if (parent[pa] >= 0) parent[find(parent, pa)] = find(parent, index);
+                }
+            }
+
+            // 给每个区域编号, 把 0 按区域排好 (计数排序), 再逐个区域追加外围的数字.
+            // 一个数字可能与同一区域里的多个 0 相邻, 用 stamp 去重; 逐个区域处理, 所以 stamp 不会被别的区域打乱
+            this.region = new int[geometry.size];
+            Arrays.fill(this.region, -1);
+            int regionCount = 0;
+            for (int index = 0; index < geometry.size; ++index) {
+                if (parent[index] >= 0 && find(parent, index) == index) this.region[index] = regionCount++;
+            }
+            final int[] zeroStart = new int[regionCount + 1];
+            for (int index = 0; index < geometry.size; ++index) {
+                if (parent[index] < 0) continue;
+                ++zeroStart[(this.region[index] = this.region[find(parent, index)]) + 1];
+            }
+            for (int r = 0; r < regionCount; ++r) zeroStart[r + 1] += zeroStart[r];
+            final int[] zeros = new int[zeroCount], pos = zeroStart.clone();
+            for (int index = 0; index < geometry.size; ++index) {
+                if (parent[index] >= 0) zeros[pos[this.region[index]]++] = index;
+            }
+            final int[] stamp = new int[geometry.size];
+            final IntList list = new IntList(zeroCount * 2);
+            this.start = new int[regionCount + 1];
+            this.zeroEnd = new int[regionCount];
+            for (int r = 0; r < regionCount; ++r) {
+                for (int i = zeroStart[r]; i < zeroStart[r + 1]; ++i) list.add(zeros[i]);
+                this.zeroEnd[r] = list.size();
+                for (int i = zeroStart[r]; i < zeroStart[r + 1]; ++i) for (int d : offsets) {
+                    final int pa = zeros[i] + d;
+                    if (parent[pa] >= 0 || stamp[pa] == r + 1 || !isInside(geometry, pa)) continue;
+                    stamp[pa] = r + 1;
+                    list.add(pa);
+                }
+                this.start[r + 1] = list.size();
+            }
+            this.cells = list.toArray();
+
+            int isolated = 0;
+            for (int i = 0; i < geometry.row; ++i) for (int j = 0; j < geometry.col; ++j) {
+                final int index = geometry.index(i, j);
+                if (parent[index] >= 0 || (mineBoard[index >>> 6] & (1L << index)) != 0) continue;
+                boolean nextToZero = false;
+                for (int d : offsets) nextToZero |= parent[index + d] >= 0;
+                if (!nextToZero) ++isolated;
+            }
+            this.isolatedNumberCount = isolated;
+        }
+
+        /**
+         * 某格所属的空白区域
+         * @param index 格子的下标
+         * @return 区域编号, 不是 0 的格子为 -1
+         */
+        int regionOf(int index) { return this.region[index]; }
+
+        /**
+         * @return 空白区域 (即开局时点一下能打开一片的地方) 的个数
+         */
+        int getRegionCount() { return this.zeroEnd.length; }
+
+        /**
+         * @return 孤立数字 (周围没有 0 的非雷格子, 只能一个个点开) 的个数
+         */
+        int getIsolatedNumberCount() { return this.isolatedNumberCount; }
+
+        private static int find(int[] parent, int x) {
+            while (parent[x] != x) x = parent[x] = parent[parent[x]];
+            return x;
+        }
+
+        private static boolean isInside(Geometry geometry, int index) {
+            final int x = index / geometry.stride - 1, y = index % geometry.stride - 1;
+            return x >= 0 && x < geometry.row && y >= 0 && y < geometry.col;
+        }
+    }
+
+    /**
+     * 与棋盘尺寸相关、与棋局内容无关的预计算数据: 下标换算、8 方向偏移、每个格子的邻居表.
+     * 下标视图外围多出一圈哨兵格子 (共 (row + 2) * (col + 2) 格), 所以任何界内格子的 8 个邻居都不会越界.
+     * 同尺寸的棋局共用一个实例 (只读).
+     */
+    public static final class Geometry {
+        private static final Map<Long, Geometry> cache = new ConcurrentHashMap<>();
+        private static final int TABLE_SIZE_LIMIT = 1 << 16; // 超过这个格子数的棋盘不建邻居表与模板, 免得缓存常驻大块内存
+
+        public final int row, col;
+        public final int stride;        // 下标视图每行的宽度 (col + 2)
+        public final int size;          // 下标视图的总长度
+        final int[] offsets;            // 8 方向偏移, 顺序从左上到右下
+        final int[] neighbors;          // 下标为 index 的格子的邻居存放在 [index * 8, index * 8 + neighborCount[index]) (超大棋盘为 null)
+        final byte[] neighborCount;
+        private final byte[] emptyBoard; // 新棋局的玩家视图模板 (界内 UNCHECKED, 界外 BORDER) (超大棋盘为 null)
+
+        private Geometry(int row, int col) {
+            if (row <= 0 || col <= 0 || (long) (row + 2) * (col + 2) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("棋盘尺寸不可用: " + row + "x" + col);
+            }
+            this.row = row;
+            this.col = col;
+            this.stride = col + 2;
+            this.size = (row + 2) * this.stride;
+            final int s = this.stride;
+            this.offsets = new int[]{-s - 1, -s, -s + 1, -1, 1, s - 1, s, s + 1};
+            if (this.size > TABLE_SIZE_LIMIT) {
+                this.neighbors = null;
+                this.neighborCount = null;
+                this.emptyBoard = null;
+                return;
+            }
+            this.neighbors = new int[this.size << 3];
+            this.neighborCount = new byte[this.size];
+            this.emptyBoard = this.buildEmptyBoard();
+            for (int i = 0; i < row; ++i) for (int j = 0; j < col; ++j) {
+                final int index = this.index(i, j);
+                int n = 0;
+                for (int d : this.offsets) {
+                    if (this.emptyBoard[index + d] != BORDER) this.neighbors[(index << 3) + n++] = index + d;
+                }
+                this.neighborCount[index] = (byte) n;
+            }
+        }
+
+        /**
+         * 获取某尺寸的棋盘对应的 Geometry (有缓存)
+         * @param row 行数
+         * @param col 列数
+         * @return 共用的实例
+         * @throws IllegalArgumentException 行列数不为正, 或 (row + 2) * (col + 2) 超出 int 的范围
+         */
+        public static Geometry of(int row, int col) {
+            return cache.computeIfAbsent(((long) row << 32) | col, k -> new Geometry(row, col));
+        }
+
+        public int index(int x, int y) { return (x + 1) * this.stride + y + 1; }
+
+        byte[] newPlayerBoard() { return this.emptyBoard == null ? this.buildEmptyBoard() : this.emptyBoard.clone(); }
+
+        private byte[] buildEmptyBoard() {
+            byte[] board = new byte[this.size];
+            Arrays.fill(board, (byte) BORDER);
+            for (int i = 0; i < this.row; ++i) Arrays.fill(board, this.index(i, 0), this.index(i, 0) + this.col, (byte) UNCHECKED);
+            return board;
+        }
+    }
+
+    /**
+     * 格子变化的监听者, 见 addChangeListener
+     */
+    public interface ChangeListener {
+        /**
+         * 一个操作结束, 它改动了若干格子
+         * @param opId 操作编号, 从 0 开始递增
+         * @param changes 改动, 每条两个 int: 下标, (旧状态 << 8 | 新状态). 只在回调期间有效, 请勿修改或保存
+         */
+        void onCellsChanged(int opId, IntList changes);
+    }
+
+    /**
+     * 可轮询的格子变化缓冲: 作为监听者收集改动, 由另一个线程 (比如界面) 在方便时一次取走
+     */
+    public static class ChangeBuffer implements ChangeListener {
+        private final IntList buffer = new IntList(256);
+
+        @Override
+        public synchronized void onCellsChanged(int opId, IntList changes) {
+            for (int i = 0; i < changes.size(); i += 2) {
+                this.buffer.add(opId);
+                this.buffer.add(changes.get(i));
+                this.buffer.add(changes.get(i + 1));
+            }
+        }
+
+        /**
+         * 取走目前收集到的所有改动
+         * @param out 改动追加在其末尾, 每条三个 int: 操作编号, 下标, (旧状态 << 8 | 新状态)
+         * @return 取走的改动条数
+         */
+        public synchronized int drain(IntList out) {
+            final int n = this.buffer.size() / 3;
+            for (int i = 0; i < this.buffer.size(); ++i) out.add(this.buffer.get(i));
+            this.buffer.clear();
+            return n;
+        }
+
+        /**
+         * 丢弃目前收集到的所有改动
+         */
+        public synchronized void clear() { this.buffer.clear(); }
+    }
+
+    public static class PointOutOfBoundsException extends RuntimeException {
+        public PointOutOfBoundsException(int x, int y, int row, int col) {
+            super("Point (" + x + ", " + y + ") is out of range (0, 0, "
+                    + row + ", " + col + ").");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package xjf;
+
+import xjf.util.IntList;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+/**
+ * 无猜雷区的生成器: 生成的雷区从给定的第一步开始, 只靠逻辑 (AutoSweeper.sweepAllBasedOnProbability, 即定义、减法公式与精确概率)
+ * 就能扫完, 不需要猜.
+ * 先照常随机埋雷, 然后用 AI 试扫. 卡住时不整个重新生成, 而是就地修补: 把卡住处 (已揭开区域外围的未知格子) 的一颗雷挪到
+ * 远离已揭开区域的未知格子里, 再从第一步重新试扫, 直到能扫完为止. 修补太多次仍不行才重新埋雷.
+ * 批量生成时多个线程各自生成, 每个雷区都由自己的种子决定, 结果与线程数无关.
+ */
+public final class NoGuessGenerator {
+    private static final int MAX_REPAIRS = 200;     // 一次埋雷最多修补几次, 超过就重新埋雷
+    private static final int MAX_ATTEMPTS = 1000;   // 最多重新埋雷几次, 超过说明雷太密, 基本生成不出来
+
+    private final int row, col, mineCount, gameRule;
+    private final int firstX, firstY;
+
+    /**
+     * 构造函数
+     * @param row 行数
+     * @param col 列数
+     * @param mineCount 雷数
+     * @param gameRule 游戏规则 (决定第一步周围哪些格子不能有雷)
+     * @param firstX 第一步左击的 x 坐标
+     * @param firstY 第一步左击的 y 坐标
+     */
+    public NoGuessGenerator(int row, int col, int mineCount, int gameRule, int firstX, int firstY) {
+        this.row = row;
+        this.col = col;
+        this.mineCount = mineCount;
+        this.gameRule = gameRule;
+        this.firstX = firstX;
+        this.firstY = firstY;
+    }
+
+    /**
+     * AI (AutoSweeper.sweepToEnd) 在该规则下默认的第一步
+     * @param gameRule 游戏规则
+     * @return {x, y}
+     */
+    public static int[] defaultFirstStep(int gameRule) {
+        return gameRule == MineSweeper.GAME_RULE_WIN_7 ? new int[]{2, 2} : new int[]{0, 0};
+    }
+
+    /**
+     * 在当前线程中生成一个无猜雷区
+     * @param random 随机数流
+     * @return 地雷视图
+     * @throws IllegalStateException 雷太密, 多次尝试后仍生成不出来
+     */
+    public boolean[][] generate(SplittableRandom random) {
+        IntList frontierMines = new IntList(), interiorSafe = new IntList();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
+            MineSweeper game = new MineSweeper(this.row, this.col, this.mineCount, true, this.gameRule);
+            game.setRandom(random);
+            game.dig(this.firstX, this.firstY);
+            boolean[][] mines = game.getMineBoard();
+            for (int repair = 0; ; ++repair) {
+                if (game.getGameState() == MineSweeper.PROCESS) AutoSweeper.sweepAllBasedOnProbability(game);
+                if (game.getGameState() == MineSweeper.WIN) return mines;
+                if (game.getGameState() == MineSweeper.LOSE || repair == MAX_REPAIRS) break;
+                if (!repair(game, mines, random, frontierMines, interiorSafe)) break;
+                game = new MineSweeper(mines);
+                game.dig(this.firstX, this.firstY);
+            }
+        }
+        throw new IllegalStateException("无法生成无猜雷区 (雷太密?): " + this.row + "x" + this.col + "x" + this.mineCount);
+    }
+
+    /**
+     * 修补一个卡住的雷区: 把外围 (与已揭开的数字相邻的未知格子) 的一颗雷挪到内部 (不与任何数字相邻的未知格子).
+     * 外围的雷少了, 已揭开的数字随之变小, 下次试扫时往往就能从这里推下去.
+     * @param game 卡住的游戏
+     * @param mines 地雷视图, 会被修改
+     * @param random 随机数流
+     * @param frontierMines 缓冲, 外围的雷
+     * @param interiorSafe 缓冲, 内部的非雷格子
+     * @return 是否修补了 (外围没有雷或内部没有空位时无法修补)
+     */
+    private static boolean repair(MineSweeper game, boolean[][] mines, SplittableRandom random,
+                                  IntList frontierMines, IntList interiorSafe) {
+        frontierMines.clear();
+        interiorSafe.clear();
+        final int[] offsets = game.getNeighborOffsets();
+        for (int i = 0; i < game.getRow(); ++i) for (int j = 0; j < game.getCol(); ++j) {
+            final int index = game.getIndex(i, j), cell = game.getPlayerBoard(index);
+            if (cell != MineSweeper.UNCHECKED && cell != MineSweeper.QUESTION) continue;
+            boolean frontier = false;
+            for (int d : offsets) {
+                if (game.getPlayerBoard(index + d) <= 8) {
+                    frontier = true;
+                    break;
+                }
+            }
+            if (frontier && mines[i][j]) frontierMines.add(index);
+            else if (!frontier && !mines[i][j]) interiorSafe.add(index);
+        }
+        if (frontierMines.isEmpty() || interiorSafe.isEmpty()) return false;
+        final int from = frontierMines.get(random.nextInt(frontierMines.size()));
+        final int to = interiorSafe.get(random.nextInt(interiorSafe.size()));
+        mines[game.getX(from)][game.getY(from)] = false;
+        mines[game.getX(to)][game.getY(to)] = true;
+        return true;
+    }
+
+    /**
+     * 用一组线程批量生成无猜游戏. 第 i 个游戏的种子是以 seed 为种子的随机数流的第 i 个 nextLong(),
+     * 游戏已经点过了第一步 (开启作弊), 按编号顺序依次交给 consumer (在调用者的线程中).
+     * @param count 个数
+     * @param seed 主种子
+     * @param threads 线程数
+     * @param consumer 接收 (种子, 游戏)
+     * @throws InterruptedException 等待时被中断
+     * @throws ExecutionException 某个雷区生成失败
+     * @throws IOException consumer 写文件出错
+     */
+    public void generate(int count, long seed, int threads, BoardConsumer consumer)
+            throws InterruptedException, ExecutionException, IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final SplittableRandom master = new SplittableRandom(seed);
+            // 只让有限个任务在路上, 生成得再多内存也不会涨
+            final Deque<Future<MineSweeper>> window = new ArrayDeque<>();
+            final Deque<Long> seeds = new ArrayDeque<>();
+            for (int submitted = 0, done = 0; done < count; ++done) {
+                for (; submitted < count && window.size() < threads * 4; ++submitted) {
+                    final long s = master.nextLong();
+                    seeds.add(s);
+                    window.add(pool.submit(() -> this.newGame(s)));
+                }
+                consumer.accept(seeds.poll(), window.poll().get());
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 以给定的种子新建一局无猜游戏, 并点好第一步
+     * @param seed 种子
+     * @return 游戏 (开启作弊)
+     */
+    public MineSweeper newGame(long seed) {
+        MineSweeper game = new MineSweeper(this.row, this.col, this.mineCount, true, this.gameRule);
+        game.setNoGuess(true);
+        game.setSeed(seed);
+        game.dig(this.firstX, this.firstY);
+        return game;
+    }
+
+    /**
+     * 批量生成时接收结果
+     */
+    public interface BoardConsumer {
+        void accept(long seed, MineSweeper game) throws IOException;
+    }
+}
@@ -0,0 +1,62 @@
+package xjf.util;
+
+/**
+ * 组合数工具类. 组合数在大棋盘上远超 double 的范围, 所以统一在对数空间里给出:
+ * ln C(n, k) = ln n! - ln k! - ln (n-k)!.
+ * 只缓存 ln n! 一张一维 double 表, 用到多大才扩到多大, 100x100 的棋盘也只需要 80KB.
+ */
+public final class Combinatorics {
+
+    // logFactorial[i] = ln i!. 扩容时整张换掉, 读者拿到的永远是填好的完整数组, 所以读不用加锁
+    private static volatile double[] logFactorial = { 0.0, 0.0 };
+
+    private Combinatorics() {}
+
+    /**
+     * ln n!
+     * @param n 非负整数
+     * @return ln n!
+     */
+    public static double logFactorial(int n) {
+        double[] table = logFactorial;
+        if (n >= table.length) table = grow(n);
+        return table[n];
+    }
+
+    /**
+     * ln C(n, k). k 不在 [0, n] 内时组合数为 0, 返回负无穷.
+     * @param n 总数
+     * @param k 选取个数
+     * @return ln C(n, k)
+     */
+    public static double logChoose(int n, int k) {
+        if (k < 0 || k > n) return Double.NEGATIVE_INFINITY;
+        if (k == 0 || k == n) return 0.0;
+        double[] table = logFactorial;
+        if (n >= table.length) table = grow(n);
+        return table[n] - table[k] - table[n - k];
+    }
+
+    /**
+     * C(n, k) 的 double 值. 超出 double 范围时为正无穷, 此时应改用 logChoose.
+     * 值不大时取整, 保证小组合数是精确的整数.
+     * @param n 总数
+     * @param k 选取个数
+     * @return C(n, k)
+     */
+    public static double choose(int n, int k) {
+        double value = Math.exp(logChoose(n, k));
+        // ln n! 由逐项累加得到, 相对误差在 1e-13 量级, 1e11 以内四舍五入即可得到精确整数
+        return value < 1e11 ? Math.rint(value) : value;
+    }
+
+    private static synchronized double[] grow(int n) {
+        double[] old = logFactorial;
+        if (n < old.length) return old;
+        double[] table = new double[Math.max(n + 1, old.length * 2)];
+        System.arraycopy(old, 0, table, 0, old.length);
+        for (int i = old.length; i < table.length; ++i) table[i] = table[i - 1] + Math.log(i);
+        logFactorial = table;
+        return table;
+    }
+}
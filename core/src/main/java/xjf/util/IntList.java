@@ -0,0 +1,46 @@
+package xjf.util;
+
+import java.util.Arrays;
+
+/**
+ * 元素为 int 的变长数组, 用来代替 List&lt;Integer&gt;, 避免装箱与频繁分配.
+ * 也可以配合一个读指针当作 FIFO 队列使用.
+ */
+public class IntList {
+
+    private int[] data;
+    private int size;
+
+    public IntList() { this(8); }
+
+    public IntList(int capacity) {
+        this.data = new int[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    public void add(int value) {
+        if (this.size == this.data.length) this.data = Arrays.copyOf(this.data, this.size << 1);
+        this.data[this.size++] = value;
+    }
+
+    public int get(int i) { return this.data[i]; }
+    public void set(int i, int value) { this.data[i] = value; }
+    public int size() { return this.size; }
+    public boolean isEmpty() { return this.size == 0; }
+    public void clear() { this.size = 0; }
+    public void truncate(int size) { if (size < this.size) this.size = size; }
+
+    public boolean contains(int value) {
+        for (int i = 0; i < this.size; ++i) {
+            if (this.data[i] == value) return true;
+        }
+        return false;
+    }
+
+    public int[] toArray() { return Arrays.copyOf(this.data, this.size); }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.toArray());
+    }
+}
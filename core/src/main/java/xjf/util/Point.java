@@ -0,0 +1,33 @@
+package xjf.util;
+
+/**
+ * 棋盘上的一个格子坐标 (x 为行, y 为列).
+ * 引擎不依赖 AWT, 所以不用 java.awt.Point, 免得无界面的进程也要加载 AWT 的类.
+ */
+public final class Point {
+
+    public final int x, y;
+
+    public Point(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ")";
+    }
+
+    @Override
+    public int hashCode() {
+        return x * 31 + y;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Point)) return false;
+        Point p = (Point) o;
+        return x == p.x && y == p.y;
+    }
+}
@@ -0,0 +1,93 @@
+package xjf.util;
+
+/**
+ * 以雷数为次数的多项式, 第 m 项系数表示有 m 个雷时的情况数. 多个分量的情况数相乘很快就会超出 long 甚至 double 的范围,
+ * 所以系数统一存为 coef[m] * 2^exp: 系数过大或过小时整体按 2 的幂缩放, 缩放是精确的, 不会损失精度,
+ * 情况数不大时 exp 为 0, 系数就是精确的整数.
+ * 不可变对象, 运算都返回新的多项式.
+ */
+public final class ScaledPolynomial {
+
+    // 最大系数超出 [2^-MAX_EXP, 2^MAX_EXP] 时重新缩放, 保证两个多项式相乘时不会溢出
+    private static final int MAX_EXP = 256;
+
+    public static final ScaledPolynomial ONE = new ScaledPolynomial(new double[] { 1 }, 0);
+
+    private final double[] coef;
+    private final int exp;
+
+    /**
+     * @param coef 系数 (直接持有, 调用者之后不要再修改)
+     * @param exp 2 的指数
+     */
+    public ScaledPolynomial(double[] coef, int exp) {
+        double max = 0;
+        for (double c : coef) max = Math.max(max, c);
+        if (max != 0 && (max > 0x1p256 || max < 0x1p-256)) {
+            final int shift = Math.getExponent(max);
+            for (int i = 0; i < coef.length; ++i) coef[i] = Math.scalb(coef[i], -shift);
+            exp += shift;
+        }
+        this.coef = coef;
+        this.exp = max == 0 ? 0 : exp;
+    }
+
+    /**
+     * 由情况数构造
+     * @param counts 下标为雷数, 值为情况数 (会被复制)
+     * @return 多项式
+     */
+    public static ScaledPolynomial of(double[] counts) {
+        return new ScaledPolynomial(counts.clone(), 0);
+    }
+
+    /**
+     * 综合考虑两个连通分量 (或分量集合), 计算在不同雷数情况下有多少种可能性, 即两个多项式相乘 (卷积).
+     * 对于两个分量 P1、P2, 当分量雷数分别为 i、j 时分别有 N1_i、N2_j 种情况, 则当雷有 n 个时有 ΣN1_i * N2_j (i + j = n) 种情况.
+     * @param other 另一个多项式
+     * @param maxDegree 最多有多少个雷 (一般为剩余雷数), 超出的项直接丢弃
+     * @return 乘积
+     */
+    public ScaledPolynomial multiply(ScaledPolynomial other, int maxDegree) {
+        double[] res = new double[Math.min(this.coef.length + other.coef.length - 1, maxDegree + 1)];
+        for (int i = 0; i < this.coef.length && i < res.length; ++i) {
+            if (this.coef[i] == 0) continue;
+            for (int j = 0; j < other.coef.length && i + j < res.length; ++j) {
+                res[i + j] += this.coef[i] * other.coef[j];
+            }
+        }
+        return new ScaledPolynomial(res, this.exp + other.exp);
+    }
+
+    /**
+     * 互相关: res[a] = Σ other[c] * this[a + c]. 若 this[m] 表示 "之前已有 m 个雷时, 之后的部分有多少种情况",
+     * 则结果表示把 other 这个分量也算进 "之后的部分" 时的情况数.
+     * @param other 另一个多项式
+     * @return 与 this 等长的结果
+     */
+    public ScaledPolynomial correlate(ScaledPolynomial other) {
+        double[] res = new double[this.coef.length];
+        for (int a = 0; a < res.length; ++a) {
+            double sum = 0;
+            for (int c = 0; c < other.coef.length && a + c < this.coef.length; ++c) {
+                sum += other.coef[c] * this.coef[a + c];
+            }
+            res[a] = sum;
+        }
+        return new ScaledPolynomial(res, this.exp + other.exp);
+    }
+
+    /**
+     * @return 项数 (最高次数 + 1)
+     */
+    public int length() { return this.coef.length; }
+
+    /**
+     * 第 m 项的系数, 真实值为 get(m) * 2^getExponent()
+     * @param m 次数
+     * @return 缩放后的系数
+     */
+    public double get(int m) { return m < this.coef.length ? this.coef[m] : 0; }
+
+    public int getExponent() { return this.exp; }
+}
@@ -0,0 +1,69 @@
+package xjf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 语料文件: 写进去的棋局能原样读出, 棋局长度字段损坏时报 IOException 而不是按坏长度分配内存.
+ */
+class BoardCorpusTest {
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        File file = writeCorpus();
+        try (BoardCorpus.Reader reader = new BoardCorpus.Reader(file)) {
+            for (int seed = 0; seed < 3; ++seed) {
+                BoardCorpus.Entry entry = reader.next();
+                assertEquals(seed, entry.getSeed());
+                assertEquals(MineSweeper.PROCESS, entry.getExpectedResult());
+                assertArrayEquals(newGame(seed).getPackedPlayerBoard(), entry.newGame().getPackedPlayerBoard());
+            }
+            assertNull(reader.next());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void rejectsCorruptSize() throws IOException {
+        for (int size : new int[] { -1, 0, Integer.MAX_VALUE, (int) BoardFile.sizeOf(9, 9) + 1 }) {
+            File file = writeCorpus();
+            try {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.seek(8); // 文件头之后即第一条记录的棋局长度
+                    raf.writeInt(size);
+                }
+                try (BoardCorpus.Reader reader = new BoardCorpus.Reader(file)) {
+                    assertThrows(IOException.class, reader::next);
+                }
+            }
+            finally {
+                file.delete();
+            }
+        }
+    }
+
+    private static File writeCorpus() throws IOException {
+        File file = File.createTempFile("corpus", BoardCorpus.EXTENSION);
+        try (BoardCorpus.Writer writer = new BoardCorpus.Writer(file)) {
+            for (int seed = 0; seed < 3; ++seed) writer.write(newGame(seed), seed, MineSweeper.PROCESS);
+        }
+        return file;
+    }
+
+    private static MineSweeper newGame(long seed) {
+        MineSweeper game = new MineSweeper(9, 9, 10, true);
+        game.setSeed(seed);
+        game.dig(4, 4);
+        return game;
+    }
+}
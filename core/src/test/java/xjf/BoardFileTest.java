@@ -0,0 +1,92 @@
+package xjf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 二进制棋局文件: 存进去再读出来, 玩家视图、状态、步数与各计数都要和原来一样. 列数取奇数, 好让两格一字节跨行.
+ */
+class BoardFileTest {
+
+    @Test
+    void roundTripKeepsBoardAndCounters() throws IOException {
+        SplittableRandom random = new SplittableRandom(2021);
+        for (int round = 0; round < 100; ++round) {
+            MineSweeper game = play(random);
+            assertSameGame(game, new MineSweeper(BoardFile.wrap(toBytes(game))));
+        }
+    }
+
+    @Test
+    void versionOneFileCountsCellsItself() throws IOException {
+        SplittableRandom random = new SplittableRandom(2022);
+        for (int round = 0; round < 100; ++round) {
+            MineSweeper game = play(random);
+            // 去掉版本 2 头部里的两个计数, 即为版本 1 的文件
+            final byte[] v2 = toBytes(game);
+            final ByteBuffer v1 = ByteBuffer.allocate(v2.length - 8);
+            v1.put(v2, 0, 36).putInt(0).put(v2, 48, v2.length - 48);
+            v1.putInt(4, 1);
+            assertSameGame(game, new MineSweeper(BoardFile.wrap(v1.array())));
+        }
+    }
+
+    @Test
+    void hugeSweeperOpensSavedFile() throws IOException {
+        MineSweeper game = play(new SplittableRandom(2023));
+        File file = File.createTempFile("board", BoardFile.EXTENSION);
+        try {
+            BoardFile.write(game, file);
+            assertSameGame(game, new HugeSweeper(file));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void longRowsAreDecodedPieceByPiece() throws IOException {
+        // 一行超过一块缓冲, 要分几段解码
+        MineSweeper game = play(new SplittableRandom(2024), new HugeSweeper(3, 140001, 40000, true, MineSweeper.GAME_RULE_WIN_XP));
+        assertSameGame(game, new MineSweeper(BoardFile.wrap(toBytes(game))));
+    }
+
+    private static MineSweeper play(SplittableRandom random) {
+        return play(random, new MineSweeper(9, 7, 10, true));
+    }
+
+    private static MineSweeper play(SplittableRandom random, MineSweeper game) {
+        game.setSeed(random.nextLong());
+        for (int op = 0; op < 20 && game.getGameState() == MineSweeper.PROCESS; ++op) {
+            final int x = random.nextInt(game.getRow()), y = random.nextInt(game.getCol());
+            if (random.nextInt(3) == 0) game.mark(x, y);
+            else game.dig(x, y);
+        }
+        return game;
+    }
+
+    private static byte[] toBytes(MineSweeper game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BoardFile.write(game, new DataOutputStream(bytes));
+        assertEquals(BoardFile.sizeOf(game.getRow(), game.getCol()), bytes.size());
+        return bytes.toByteArray();
+    }
+
+    private static void assertSameGame(MineSweeper expected, MineSweeper actual) {
+        assertArrayEquals(expected.getPackedPlayerBoard(), actual.getPackedPlayerBoard());
+        assertEquals(expected.getGameState(), actual.getGameState());
+        assertEquals(expected.getStep(), actual.getStep());
+        assertEquals(expected.getUncheckedCellLeft(), actual.getUncheckedCellLeft());
+        assertEquals(expected.getMineLeft(), actual.getMineLeft());
+    }
+}
@@ -0,0 +1,127 @@
+package xjf;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * fork() 的写时复制: 分叉后父子游戏各走各的, 结果都要与没分叉过的游戏相同, 且互不影响.
+ */
+class ForkTest {
+
+    /**
+     * HugeSweeper 没有预先算好的空白区域, 揭开 0 总是走 BFS. 分叉后第一次挖开 0 也要展开整片区域
+     */
+    @Test
+    void hugeSweeperFloodsZeroAfterFork() {
+        int checked = 0;
+        for (long seed = 1; seed <= 50; ++seed) {
+            HugeSweeper parent = newHugeGame(seed), plain = newHugeGame(seed);
+            final int zero = findCoveredZero(parent);
+            if (zero < 0) continue;
+            HugeSweeper child = parent.fork();
+            child.dig(zero);
+            parent.dig(zero);
+            plain.dig(zero);
+            assertSameBoard(plain, child);
+            assertSameBoard(plain, parent);
+            ++checked;
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    void mineSweeperChildMovesLikeAnUnforkedGame() {
+        for (long seed = 1; seed <= 50; ++seed) {
+            MineSweeper parent = newGame(seed), plain = newGame(seed);
+            final byte[] before = parent.getPackedPlayerBoard();
+            MineSweeper child = parent.fork();
+            for (int index : coveredSafeCells(parent, 5)) {
+                child.dig(index);
+                plain.dig(index);
+            }
+            assertSameBoard(plain, child);
+            assertArrayEquals(before, parent.getPackedPlayerBoard(), "子游戏的操作不应影响父游戏");
+        }
+    }
+
+    @Test
+    void childUndoRedoDoesNotTouchParent() {
+        for (long seed = 1; seed <= 50; ++seed) {
+            MineSweeper parent = newGame(seed);
+            final byte[] before = parent.getPackedPlayerBoard();
+            final int parentHistory = parent.getHistorySize();
+            MineSweeper child = parent.fork();
+            assertEquals(0, child.getHistorySize(), "子游戏不继承操作日志");
+
+            int[] cells = coveredSafeCells(parent, 6);
+            for (int i = 0; i < cells.length; ++i) {
+                if (i % 3 == 2) child.mark(cells[i]);
+                else child.dig(cells[i]);
+            }
+            final byte[] after = child.getPackedPlayerBoard();
+            final int step = child.getStep(), unchecked = child.getUncheckedCellLeft(), mineLeft = child.getMineLeft();
+
+            child.jumpTo(0);
+            assertArrayEquals(before, child.getPackedPlayerBoard(), "全部撤销后应回到分叉时的局面");
+            child.jumpTo(child.getHistorySize());
+            assertArrayEquals(after, child.getPackedPlayerBoard(), "全部重做后应回到撤销前的局面");
+            assertEquals(step, child.getStep());
+            assertEquals(unchecked, child.getUncheckedCellLeft());
+            assertEquals(mineLeft, child.getMineLeft());
+
+            assertArrayEquals(before, parent.getPackedPlayerBoard(), "子游戏的撤销、重做不应影响父游戏");
+            assertEquals(parentHistory, parent.getHistorySize());
+        }
+    }
+
+    private static MineSweeper newGame(long seed) {
+        MineSweeper game = new MineSweeper(MineSweeper.DIFFICULTY_EXPERT, true);
+        game.setSeed(seed);
+        game.dig(8, 15);
+        return game;
+    }
+
+    private static HugeSweeper newHugeGame(long seed) {
+        HugeSweeper game = new HugeSweeper(16, 30, 60);
+        game.setSeed(seed);
+        game.dig(0, 0);
+        return game;
+    }
+
+    /**
+     * @return 一个还没揭开的 0, 没有则返回 -1
+     */
+    private static int findCoveredZero(MineSweeper game) {
+        for (int x = 0; x < game.getRow(); ++x) for (int y = 0; y < game.getCol(); ++y) {
+            final int index = game.getIndex(x, y);
+            if (game.getPlayerBoard(index) == MineSweeper.UNCHECKED && !game.isMine(index) && game.getNumber(index) == 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 至多 n 个还没揭开的非雷格子, 从棋盘的右下角往前取
+     */
+    private static int[] coveredSafeCells(MineSweeper game, int n) {
+        int[] res = new int[n];
+        int cnt = 0;
+        for (int x = game.getRow() - 1; x >= 0 && cnt < n; --x) for (int y = game.getCol() - 1; y >= 0 && cnt < n; --y) {
+            final int index = game.getIndex(x, y);
+            if (game.getPlayerBoard(index) == MineSweeper.UNCHECKED && !game.isMine(index)) res[cnt++] = index;
+        }
+        return Arrays.copyOf(res, cnt);
+    }
+
+    private static void assertSameBoard(MineSweeper expected, MineSweeper actual) {
+        assertArrayEquals(expected.getPackedPlayerBoard(), actual.getPackedPlayerBoard());
+        assertEquals(expected.getUncheckedCellLeft(), actual.getUncheckedCellLeft());
+        assertEquals(expected.getStep(), actual.getStep());
+    }
+}
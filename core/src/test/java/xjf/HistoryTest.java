@@ -0,0 +1,50 @@
+package xjf;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 撤销、重做: 随机操作一通后全部撤销再全部重做, 棋盘与各计数都要回到原样.
+ */
+class HistoryTest {
+
+    @Test
+    void undoAllThenRedoAllRestoresEverything() {
+        SplittableRandom random = new SplittableRandom(2020);
+        for (int round = 0; round < 300; ++round) {
+            MineSweeper game = new MineSweeper(9, 9, 10, true);
+            game.setSeed(random.nextLong());
+            final byte[] start = game.getPackedPlayerBoard();
+            for (int op = 0; op < 40 && game.getGameState() == MineSweeper.PROCESS; ++op) {
+                final int x = random.nextInt(9), y = random.nextInt(9);
+                switch (random.nextInt(4)) {
+                    case 0: game.dig(x, y); break;
+                    case 1: game.mark(x, y); break;
+                    case 2: game.check(x, y); break;
+                    default:
+                        game.applyBatch(new int[] { game.getIndex(x, y), game.getIndex(random.nextInt(9), random.nextInt(9)) },
+                                new int[] { game.getIndex(random.nextInt(9), random.nextInt(9)) });
+                }
+            }
+            final byte[] end = game.getPackedPlayerBoard();
+            final int state = game.getGameState(), step = game.getStep();
+            final int unchecked = game.getUncheckedCellLeft(), mineLeft = game.getMineLeft();
+
+            game.jumpTo(0);
+            assertArrayEquals(start, game.getPackedPlayerBoard());
+            assertEquals(0, game.getStep());
+            assertEquals(MineSweeper.PROCESS, game.getGameState());
+
+            game.jumpTo(game.getHistorySize());
+            assertArrayEquals(end, game.getPackedPlayerBoard());
+            assertEquals(state, game.getGameState());
+            assertEquals(step, game.getStep());
+            assertEquals(unchecked, game.getUncheckedCellLeft());
+            assertEquals(mineLeft, game.getMineLeft());
+        }
+    }
+}
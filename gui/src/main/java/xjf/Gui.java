@@ -5,7 +5,9 @@
  */
 package xjf;
 
+import xjf.util.IntList;
 import xjf.util.Pair;
+import xjf.util.Point;
 
 import static java.awt.event.InputEvent.*;
 import static java.awt.event.KeyEvent.*;
@@ -46,6 +48,19 @@ public class Gui extends JFrame {
 
     private String lastMineBoardDirectory = ".";
 
+    /**
+     * 程序入口 (Minesweeper.jar 的主类): 无参数或 gui 时打开图形界面, 其余命令交给 core 的命令行入口 Main
+     * @param args 执行参数
+     */
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].equals("gui")) {
+            new Gui();
+            return;
+        }
+        Main.realWinXpGameFactory = WinXpSweeper::new;
+        Main.main(args);
+    }
+
     public Gui() {
         this.cellLength = 30;
         this.showMine = false;
@@ -100,17 +115,20 @@ public class Gui extends JFrame {
 
         JCheckBoxMenuItem cheatMenuItem         = new JCheckBoxMenuItem("启用作弊");
         JMenuItem         undoMenuItem          = new JMenuItem("撤销操作");
+        JMenuItem         redoMenuItem          = new JMenuItem("重做操作");
         JMenuItem         mineMenuItem          = new JMenuItem("启用透视");
         JMenuItem         loadMineMenuItem      = new JMenuItem("导入棋盘");
         JMenuItem         saveMineMenuItem      = new JMenuItem("保存棋盘");
         cheatMenuItem.setText((cheat? "关闭" : "启用") + "作弊");
         undoMenuItem.setEnabled(cheat);
+        redoMenuItem.setEnabled(cheat);
         mineMenuItem.setEnabled(cheat);
         loadMineMenuItem.setEnabled(cheat);
         saveMineMenuItem.setEnabled(cheat);
         cheatMenu.add(cheatMenuItem);
         cheatMenu.addSeparator();
         cheatMenu.add(undoMenuItem);
+        cheatMenu.add(redoMenuItem);
         cheatMenu.add(mineMenuItem);
         cheatMenu.add(loadMineMenuItem);
         cheatMenu.add(saveMineMenuItem);
@@ -214,6 +232,7 @@ public class Gui extends JFrame {
                 cheat = showMine = false;
                 cheatMenuItem.setSelected(false);
                 undoMenuItem.setEnabled(cheat);
+                redoMenuItem.setEnabled(cheat);
                 mineMenuItem.setEnabled(cheat);
                 loadMineMenuItem.setEnabled(cheat);
                 saveMineMenuItem.setEnabled(cheat);
@@ -268,6 +287,7 @@ public class Gui extends JFrame {
             cheat = cheatMenuItem.isSelected();
             if (!cheat) showMine = false;
             undoMenuItem.setEnabled(cheat);
+            redoMenuItem.setEnabled(cheat);
             mineMenuItem.setEnabled(cheat);
             loadMineMenuItem.setEnabled(cheat);
             saveMineMenuItem.setEnabled(cheat);
@@ -275,6 +295,8 @@ public class Gui extends JFrame {
         });
         undoMenuItem.setAccelerator(KeyStroke.getKeyStroke(VK_Z, CTRL_MASK));
         undoMenuItem.addActionListener(e -> { game.undo(); setFrameAfterOperation(); });
+        redoMenuItem.setAccelerator(KeyStroke.getKeyStroke(VK_Y, CTRL_MASK));
+        redoMenuItem.addActionListener(e -> { game.redo(); setFrameAfterOperation(); });
         mineMenuItem.setAccelerator(KeyStroke.getKeyStroke(VK_M, CTRL_MASK));
         mineMenuItem.addActionListener(e -> {
             if (!cheat) showMine = false;
@@ -282,7 +304,7 @@ public class Gui extends JFrame {
                 showMine = !showMine;
                 mineMenuItem.setText((showMine? "关闭" : "启用") + "透视");
                 game.setShowMine(showMine);
-                canvas.repaint();
+                canvas.requestRepaintAll(false);
             }
         });
         loadMineMenuItem.setAccelerator(KeyStroke.getKeyStroke(VK_N, CTRL_MASK));
@@ -349,17 +371,17 @@ public class Gui extends JFrame {
         aiProbMenuItem.setAccelerator(KeyStroke.getKeyStroke(VK_S, SHIFT_MASK));
         aiProbMenuItem.addActionListener(e -> new Thread(() -> {
             AutoSweeper.ProbResult probResult = AutoSweeper.calculateAllProbabilities(game);
-            int[][] cc = probResult.ccGraph;
-            double[][] prob = probResult.probGraph;
-            for (int i = 0; i < prob.length; ++i)  for (int j = 0; j < prob[0].length; ++j) {
-                prob[i][j] = Math.abs(1.0 - prob[i][j]);
+            int[] cc = probResult.ccGraph;
+            double[] prob = probResult.probGraph;
+            for (int i = 0; i < prob.length; ++i) {
+                prob[i] = Math.abs(1.0 - prob[i]);
             }
             canvas.setConnectedComponentsAndProbability(cc, prob);
         }).start());
 
         aiWinRateMenuItem.setAccelerator(KeyStroke.getKeyStroke(VK_D, SHIFT_MASK));
         aiWinRateMenuItem.addActionListener(e -> new Thread(() -> {
-            Pair<int[][], double[][]> res = AutoSweeper.getWinRateGraph(game);
+            Pair<int[], double[]> res = AutoSweeper.getWinRateGraph(game);
             canvas.setConnectedComponentsAndProbability(res.getKey(), res.getValue());
         }).start());
 
@@ -512,6 +534,8 @@ public class Gui extends JFrame {
     }
 
     private void initGame(MineSweeper newGame) {
+        // 旧游戏的 AI 线程可能还在走, 它发布的改动是按旧棋盘的尺寸编的下标, 不能再进新游戏的缓冲区
+        if (this.game != null && this.canvas != null) this.game.removeChangeListener(this.canvas.changes);
         this.game = newGame;
         this.game.setShowMine(this.showMine);
         this.row = newGame.getRow();
@@ -530,6 +554,8 @@ public class Gui extends JFrame {
             this.getContentPane().add(this.canvas, 1);
         }
         else this.canvas.requestRepaintAll(true);
+        this.canvas.changes = new MineSweeper.ChangeBuffer(); // 旧游戏留下的改动已经没用了, 正在发布的也只会进旧的缓冲区
+        newGame.addChangeListener(this.canvas.changes);
     }
 
     private void setFrame() {
@@ -584,12 +610,15 @@ public class Gui extends JFrame {
 
         private int mouseX, mouseY;
         private boolean mouseLeft, mouseRight, mouseBoth;
-        private int[][] lastPlayerBoard;
+        private volatile MineSweeper.ChangeBuffer changes = new MineSweeper.ChangeBuffer(); // 上次绘制以来改动的格子 (每局一个)
+        private final IntList changeList = new IntList(256);
+        private boolean repaintAll;                 // 下次绘制时重画所有格子
+        private final List<Point> pressedCells = new ArrayList<>(); // 上次绘制成按下状态的格子, 下次要恢复
         private Font font, debugFont;
         private Image buffer;
         private int[][] highlightArr;
-        private int[][] connectedComponents;
-        private double[][] probability;
+        private int[] connectedComponents;
+        private double[] probability;
         private int step;
         private boolean dontUpdate;
 
@@ -601,6 +630,7 @@ public class Gui extends JFrame {
             this.highlightArr = null;
             this.step = 0;
             this.dontUpdate = false;
+            this.repaintAll = true;
 
             this.setBounds(10, 15 + INFO_HEIGHT, col * cellLength, row * cellLength);
             this.addMouseListener(this);
@@ -609,10 +639,10 @@ public class Gui extends JFrame {
 
         private void drawBoard(Graphics gPanel) {
             if (this.dontUpdate) return;
-            if (this.step < game.getStep() && this.probability != null) {
+            if (this.step != game.getStep() && this.probability != null) {
                 this.probability = null;
                 this.connectedComponents = null;
-                this.lastPlayerBoard = null;
+                this.repaintAll = true;
             }
             this.step = game.getStep();
             if (this.buffer == null) this.buffer = this.createImage(this.getWidth(), this.getHeight());
@@ -629,11 +659,23 @@ public class Gui extends JFrame {
                             state != AutoSweeper.UNKNOWN, g);
                 }
             }
-            for (int i = 0; i < row; ++i)  for (int j = 0; j < col; ++j) {
-                if (this.lastPlayerBoard == null || this.lastPlayerBoard[i][j] != game.getPlayerBoard(i, j, true))
+            // 透视时雷的显示不经过 setCell, 只能全部重画; 否则只重画游戏发布出来的改动
+            this.changeList.clear();
+            this.changes.drain(this.changeList);
+            if (this.repaintAll || (cheat && showMine)) {
+                for (int i = 0; i < row; ++i)  for (int j = 0; j < col; ++j) {
                     this.drawCell(i, j, game.getPlayerBoard(i, j, true), false, g);
+                }
+                this.repaintAll = false;
+            }
+            else {
+                for (int k = 1; k < this.changeList.size(); k += 3) {
+                    int x = game.getX(this.changeList.get(k)), y = game.getY(this.changeList.get(k));
+                    this.drawCell(x, y, game.getPlayerBoard(x, y, true), false, g);
+                }
+                for (Point p : this.pressedCells) this.drawCell(p.x, p.y, game.getPlayerBoard(p.x, p.y, true), false, g);
             }
-            this.lastPlayerBoard = game.getPlayerBoard(true);
+            this.pressedCells.clear();
 
             List<Point> around = new ArrayList<>();
             if (this.mouseBoth && this.mouseLeft && this.mouseRight) {
@@ -653,7 +695,7 @@ public class Gui extends JFrame {
             }
             for (Point p : around) {
                 this.drawCell(p.x, p.y, game.getPlayerBoard(p.x, p.y, true),true, g);
-                this.lastPlayerBoard[p.x][p.y] = 0x7fffffff;
+                this.pressedCells.add(p);
             }
             gPanel.drawImage(this.buffer, 0, 0, this);
         }
@@ -750,14 +792,14 @@ public class Gui extends JFrame {
             g.drawString(s, px + (cellLength - fontWidth) / 2, py + (cellLength + fontHeight / 2) / 2);
         }
         private void drawDebug(int px, int py, Graphics2D g) {
-            String s = String.format("%.2f", this.probability[posYToIdxX(py)][posXToIdxY(px)]);
+            String s = String.format("%.2f", this.probability[game.getIndex(posYToIdxX(py), posXToIdxY(px))]);
             g.setFont(this.debugFont);
             FontMetrics fm = g.getFontMetrics(this.debugFont);
             int fontWidth = fm.stringWidth(s);
             int fontHeight = fm.getHeight();
             Color color = Color.DARK_GRAY;
             if (this.connectedComponents != null) {
-                int id = this.connectedComponents[posYToIdxX(py)][posXToIdxY(px)];
+                int id = this.connectedComponents[game.getIndex(posYToIdxX(py), posXToIdxY(px))];
                 if (id > 0) color = this.COLOR[(id - 1) % 6 + 1];
             }
             else color = new Color(173, 80, 12);
@@ -776,7 +818,7 @@ public class Gui extends JFrame {
             this.font = new Font("Consolas",Font.BOLD, cellLength);
             this.debugFont = new Font("等线",Font.BOLD, cellLength / 3);
             this.buffer = null;
-            this.lastPlayerBoard = null;
+            this.repaintAll = true;
             if (newGame) this.step = -1;
             this.repaint();
         }
@@ -786,10 +828,10 @@ public class Gui extends JFrame {
             this.repaint();
         }
 
-        public void setConnectedComponentsAndProbability(int[][] cc, double[][] prob) {
+        public void setConnectedComponentsAndProbability(int[] cc, double[] prob) {
             this.connectedComponents = cc;
             this.probability = prob;
-            this.lastPlayerBoard = null;
+            this.repaintAll = true;
             this.repaint();
         }
 
@@ -1,5 +1,7 @@
 package xjf;
 
+import xjf.util.IntList;
+
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.event.InputEvent;
@@ -11,8 +13,6 @@ import java.io.IOException;
  * 从屏幕上找取 Windows XP 的原版扫雷程序窗口, 通过操纵原版扫雷来实现扫雷玩法.
  */
 public class WinXpSweeper extends MineSweeper {
-    public static final int GAME_RULE_REAL_WIN_XP = 20200728;
-
     // 左上角的格子在截图的坐标
     private static final int OFFSET_X = 3;
     private static final int OFFSET_Y = 46;
@@ -20,6 +20,8 @@ public class WinXpSweeper extends MineSweeper {
     private Robot robot;                // 用于操作鼠标
     private Rectangle boardPosition;    // 记录扫雷窗口的位置
     private Point lastMouseLocation;    // 记录鼠标位置
+    private int[] clickStamp;           // applyBatch 中格子被点过时记为当批的编号, 免得每批都清空
+    private int batchId;
 
     /**
      * 默认构造函数, 从屏幕找到 winmine.exe 窗口并读取棋局
@@ -65,43 +67,82 @@ public class WinXpSweeper extends MineSweeper {
             if (board[i][j] == FLAG) ++mine;
         }
         this.initGame(row, col, mine, false, null, GAME_RULE_REAL_WIN_XP);
-        this.playerBoard = board;
+        for (int i = 0; i < row; ++i) for (int j = 0; j < col; ++j) {
+            this.setCell(this.index(i, j), board[i][j]);
+        }
         this.state = this.getYellowFaceState(image);
     }
 
     /**
      * 快速挖掘, 提高 AI 性能用 (将一些不着急计算或加载的内容挪到了 lazyUpdate() 里)
      * 比直接 dig()、mark() 快了四倍以上.
-     * @param x x
-     * @param y x
+     * @param index 目标格子的下标
      */
     @Override
-    public void quickDig(int x, int y) {
-        this.mouseMoveAndClick(x, y, InputEvent.BUTTON1_MASK);
-        if (this.playerBoard[x][y] == UNCHECKED || this.playerBoard[x][y] == QUESTION) ++step;
+    public void quickDig(int index) {
+        this.mouseMoveAndClick(index, InputEvent.BUTTON1_MASK);
+        final int cell = this.playerBoard[index];
+        if (cell == UNCHECKED || cell == QUESTION) ++step;
     }
 
     /**
      * 快速标旗, 提高 AI 性能用 (将一些不着急计算或加载的内容挪到了 lazyUpdate() 里)
      * 比直接 dig()、mark() 快了四倍以上.
-     * @param x x
-     * @param y x
+     * @param index 目标格子的下标
      */
     @Override
-    public void quickFlag(int x, int y) {
+    public void quickFlag(int index) {
         int times = 0;
-        if (this.playerBoard[x][y] == UNCHECKED) times = 1;
-        else if (this.playerBoard[x][y] == QUESTION) times = 2;
+        if (this.playerBoard[index] == UNCHECKED) times = 1;
+        else if (this.playerBoard[index] == QUESTION) times = 2;
         while (times-- > 0) {
-            this.mouseMoveAndClick(x, y, InputEvent.BUTTON3_MASK);
+            this.mouseMoveAndClick(index, InputEvent.BUTTON3_MASK);
         }
-        if (this.playerBoard[x][y] != FLAG) {
-            this.playerBoard[x][y] = FLAG;
-            --this.mineLeft;
+        if (this.playerBoard[index] != FLAG) {
+            this.beginOperation();
+            this.setCell(index, FLAG);
             ++step;
+            this.endOperation();
         }
     }
 
+    /**
+     * 批量操作: 先把整批的鼠标点击一口气做完, 最后只截一次图更新棋盘 (也就只产生一个操作).
+     * 点击期间棋盘信息是旧的, 所以同一格重复出现时只点一次.
+     * @param digs 要挖掘的格子的下标, 可为 null
+     * @param flags 要标旗的格子的下标, 可为 null
+     * @return 游戏状态
+     */
+    @Override
+    public int applyBatch(int[] digs, int[] flags) {
+        if (digs != null) for (int index : digs) this.indexRangeCheck(index);
+        if (flags != null) for (int index : flags) this.indexRangeCheck(index);
+        if (this.clickStamp == null || this.clickStamp.length != this.playerBoard.length) {
+            this.clickStamp = new int[this.playerBoard.length];
+        }
+        final int id = ++this.batchId;
+        this.storeMousePosition();
+        this.captureBoard();
+        this.activateWindow();
+        if (digs != null) for (int index : digs) {
+            final int cell = this.playerBoard[index];
+            if ((cell == UNCHECKED || cell == QUESTION) && this.clickStamp[index] != id) {
+                this.clickStamp[index] = id;
+                this.mouseMoveAndClick(index, InputEvent.BUTTON1_MASK);
+            }
+        }
+        if (flags != null) for (int index : flags) {
+            int times = 0;
+            if (this.playerBoard[index] == UNCHECKED) times = 1;
+            else if (this.playerBoard[index] == QUESTION) times = 2;
+            if (this.clickStamp[index] == id) times = 0;
+            this.clickStamp[index] = id;
+            while (times-- > 0) this.mouseMoveAndClick(index, InputEvent.BUTTON3_MASK);
+        }
+        this.restoreMousePosition();
+        return this.updateGameState();
+    }
+
     /**
      * 配合 quickDig()、quickFlag() 使用, 更新棋盘信息
      * quickDig()、quickFlag() 不会更新棋盘状态, 所以返回 void.
@@ -111,82 +152,79 @@ public class WinXpSweeper extends MineSweeper {
 
     /**
      * 带有自检的安全的挖掘操作 (所以会比较慢)
-     * @param x 目标格子的 x 坐标
-     * @param y 目标格子的 y 坐标
+     * @param index 目标格子的下标
+     * @param revealed 截图后新出现的数字格子会追加在其末尾, 不关心的话传 null
      * @return 游戏状态
      */
     @Override
-    public int dig(int x, int y) {
-        this.pointRangeCheck(x, y);
+    public int dig(int index, IntList revealed) {
+        this.indexRangeCheck(index);
         this.storeMousePosition();
         this.captureBoard();
         this.activateWindow();
-        this.mouseMoveAndClick(x, y, InputEvent.BUTTON1_MASK);
+        this.mouseMoveAndClick(index, InputEvent.BUTTON1_MASK);
         this.restoreMousePosition();
-        return this.updateGameState();
+        return this.updateGameState(revealed);
     }
 
     /**
      * 带有自检的安全的标记操作 (所以会比较慢)
-     * @param x 目标格子的 x 坐标
-     * @param y 目标格子的 y 坐标
+     * @param index 目标格子的下标
      * @return 游戏状态
      */
     @Override
-    public int mark(int x, int y) {
-        this.pointRangeCheck(x, y);
+    public int mark(int index) {
+        this.indexRangeCheck(index);
         this.storeMousePosition();
         this.captureBoard();
         this.activateWindow();
-        this.mouseMoveAndClick(x, y, InputEvent.BUTTON3_MASK);
+        this.mouseMoveAndClick(index, InputEvent.BUTTON3_MASK);
         this.restoreMousePosition();
         return this.updateGameState();
     }
 
     /**
      * 带有自检的安全的检查操作 (所以会比较慢)
-     * @param x 目标格子的 x 坐标
-     * @param y 目标格子的 y 坐标
+     * @param index 目标格子的下标
      * @return 游戏状态
      */
     @Override
-    public int check(int x, int y) {
-        this.pointRangeCheck(x, y);
+    public int check(int index) {
+        this.indexRangeCheck(index);
         this.storeMousePosition();
         this.captureBoard();
         this.activateWindow();
-        this.mouseMoveAndClick(x, y, InputEvent.BUTTON2_MASK);
+        this.mouseMoveAndClick(index, InputEvent.BUTTON2_MASK);
         this.restoreMousePosition();
         return this.updateGameState();
     }
 
     /**
-     * 返回当前未知格子数量
-     * 父类的 coveredCellLeft 未在本类中使用, 所以要通过遍历棋盘的方式计算该返回值
-     * @return 当前未知格子数量
+     * 鼠标操作完后, 截图检查剩余雷数、黄脸状态、棋盘变化等
+     * @return 新的游戏状态
      */
-    @Override
-    public int getUncheckedCellLeft() {
-        int res = 0;
-        for (int i = 0; i < this.row; ++i) for (int j = 0; j < this.col; ++j) {
-            if (this.playerBoard[i][j] == UNCHECKED || this.playerBoard[i][j] == QUESTION) ++res;
-        }
-        return res;
-    }
+    private int updateGameState() { return this.updateGameState(null); }
 
     /**
      * 鼠标操作完后, 截图检查剩余雷数、黄脸状态、棋盘变化等
+     * @param revealed 由未知变为数字的格子会追加在其末尾, 不关心的话传 null
      * @return 新的游戏状态
      */
-    private int updateGameState() {
+    private int updateGameState(IntList revealed) {
         this.robot.delay(this.row * this.col / 160 + 6);
         BufferedImage image = this.captureBoard();
+        this.beginOperation(); // 截图与上次不同的格子才会经过 setCell 发布出去
         ++this.step;
         for (int i = 0; i < row; ++i) for (int j = 0; j < col; ++j) {
-            this.playerBoard[i][j] = this.getCell(image, i, j);
+            final int index = this.index(i, j), old = this.playerBoard[index];
+            this.setCell(index, this.getCell(image, i, j)); // 经过 setCell, 父类的 coveredCellLeft 等计数也随之更新
+            if (revealed != null && (old == UNCHECKED || old == QUESTION) && this.playerBoard[index] < 9) {
+                revealed.add(index);
+            }
         }
-        this.mineLeft = this.getMine(image);
-        return this.state = this.getYellowFaceState(image);
+        this.mineLeft = this.getMine(image); // 以屏幕上的计数为准
+        this.state = this.getYellowFaceState(image);
+        return this.endOperation();
     }
 
     /**
@@ -358,12 +396,11 @@ public class WinXpSweeper extends MineSweeper {
 
     /**
      * 移动鼠标并点击
-     * @param x 格子所在行
-     * @param y 格子所在列
+     * @param index 格子的下标
      * @param action 左键、右键等
      */
-    private void mouseMoveAndClick(int x, int y, int action) {
-        Point p = this.getScreenPosition(x, y);
+    private void mouseMoveAndClick(int index, int action) {
+        Point p = this.getScreenPosition(this.getX(index), this.getY(index));
         this.robot.mouseMove(p.x, p.y);
         this.robot.mousePress(action);
         this.robot.mouseRelease(action);